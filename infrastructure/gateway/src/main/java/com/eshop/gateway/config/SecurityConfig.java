@@ -6,8 +6,8 @@ import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.method.configuration.EnableReactiveMethodSecurity;
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
-import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.security.web.server.SecurityWebFilterChain;
 import reactor.core.publisher.Mono;
 
@@ -22,6 +22,9 @@ public class SecurityConfig {
 
   @Bean
   SecurityWebFilterChain springSecurityFilterChain(ServerHttpSecurity http) {
+    // Only scopes are checked here, so authorities are taken from them without building an intermediate token
+    var scopesConverter = new JwtGrantedAuthoritiesConverter();
+
     http
         .cors()
         .and()
@@ -34,10 +37,9 @@ public class SecurityConfig {
         .anyExchange().authenticated()
         .and()
         .oauth2ResourceServer()
-        .jwt(jwtSpec -> jwtSpec.jwtAuthenticationConverter(jwt -> {
-          var token = new JwtAuthenticationConverter().convert(jwt);
-          return Mono.just(new JwtAuthenticationToken(jwt, token.getAuthorities(), jwt.getClaim(userNameAttribute)));
-        }));
+        .jwt(jwtSpec -> jwtSpec.jwtAuthenticationConverter(jwt -> Mono.just(
+            new JwtAuthenticationToken(jwt, scopesConverter.convert(jwt), jwt.getClaim(userNameAttribute))
+        )));
 
     return http.build();
   }
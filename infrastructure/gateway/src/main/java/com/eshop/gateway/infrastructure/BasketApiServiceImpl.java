@@ -1,6 +1,8 @@
 package com.eshop.gateway.infrastructure;
 
 import com.eshop.gateway.models.BasketData;
+import com.eshop.gateway.models.BasketDataItem;
+import com.eshop.gateway.models.UpdateBasketItemData;
 import com.eshop.gateway.services.BasketApiService;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
@@ -8,9 +10,11 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
 
 import java.util.ArrayList;
+import java.util.List;
 
 @RequiredArgsConstructor
 @Service
@@ -41,6 +45,33 @@ public class BasketApiServiceImpl implements BasketApiService {
         .bodyToMono(BasketData.class);
   }
 
+  // Not retried, a retry could add the units twice
+  @CircuitBreaker(name = "basket")
+  @Override
+  public Mono<BasketData> addItem(String basketId, BasketDataItem item) {
+    return basketWebClient.build()
+        .post()
+        .uri("lb://basket/basket/" + basketId + "/items")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(item)
+        .retrieve()
+        .bodyToMono(BasketData.class);
+  }
+
+  @CircuitBreaker(name = "basket")
+  @Retry(name = "basket")
+  @Override
+  public Mono<BasketData> updateQuantities(String basketId, List<UpdateBasketItemData> updates) {
+    return basketWebClient.build()
+        .put()
+        .uri("lb://basket/basket/" + basketId + "/items")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(updates)
+        .retrieve()
+        .bodyToMono(BasketData.class)
+        .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.empty());
+  }
+
   private Mono<BasketData> emptyBasketData(String id, Exception t) {
     return Mono.just(new BasketData(id, new ArrayList<>()));
   }
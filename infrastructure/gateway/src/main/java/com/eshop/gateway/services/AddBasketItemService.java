@@ -8,8 +8,10 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
-import java.util.UUID;
-
+/**
+ * Adds catalog items to baskets. The basket service adds the units to an existing item of the same product
+ * atomically, so the basket is not read here.
+ */
 @RequiredArgsConstructor
 @Service
 public class AddBasketItemService {
@@ -17,51 +19,21 @@ public class AddBasketItemService {
   private final BasketApiService basketApiService;
 
   public Mono<BasketData> addBasketItem(AddBasketItemRequest data) {
-
-    return basketApiService.getById(data.basketId())
-        .zipWith(
-            catalogApiService.getCatalogItem(data.catalogItemId())
-                .onErrorResume(throwable -> Mono.empty())
-        )
-        .flatMap(result -> {
-          var basket = result.getT1();
-          var catalogItem = result.getT2();
-          var updatedBasket = addBasketItem(basket, data, catalogItem);
-
-          return basketApiService.update(updatedBasket);
-        });
+    return catalogApiService.getCatalogItem(data.catalogItemId())
+        .onErrorResume(throwable -> Mono.empty())
+        .flatMap(catalogItem -> basketApiService.addItem(data.basketId(), newBasketItem(data, catalogItem)));
   }
 
-  private BasketData addBasketItem(BasketData basket, AddBasketItemRequest data, CatalogItem catalogItem) {
-    var existingProduct = basket.items().stream()
-        .filter(i -> i.productId().equals(catalogItem.id()))
-        .findFirst()
-        .orElse(null);
-
-    if (existingProduct != null) {
-      basket.items().remove(existingProduct);
-      basket.items().add(new BasketDataItem(
-          existingProduct.id(),
-          existingProduct.productId(),
-          existingProduct.productName(),
-          existingProduct.unitPrice(),
-          existingProduct.oldUnitPrice(),
-          existingProduct.quantity() + data.quantity(),
-          existingProduct.pictureUrl()
-      ));
-    } else {
-      basket.items().add(new BasketDataItem(
-          UUID.randomUUID().toString(),
-          catalogItem.id(),
-          catalogItem.name(),
-          catalogItem.price(),
-          catalogItem.price(),
-          data.quantity(),
-          catalogItem.pictureFileName()
-      ));
-    }
-
-    return basket;
+  private BasketDataItem newBasketItem(AddBasketItemRequest data, CatalogItem catalogItem) {
+    return new BasketDataItem(
+        null,
+        catalogItem.id(),
+        catalogItem.name(),
+        catalogItem.price(),
+        catalogItem.price(),
+        data.quantity(),
+        catalogItem.pictureFileName()
+    );
   }
 
 }
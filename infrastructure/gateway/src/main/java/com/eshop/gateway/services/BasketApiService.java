@@ -1,10 +1,24 @@
 package com.eshop.gateway.services;
 
 import com.eshop.gateway.models.BasketData;
+import com.eshop.gateway.models.BasketDataItem;
+import com.eshop.gateway.models.UpdateBasketItemData;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 public interface BasketApiService {
   Mono<BasketData> getById(String id);
 
   Mono<BasketData> update(BasketData currentBasket);
+
+  /**
+   * Adds the units of given item to the basket, in a single call to the basket service.
+   */
+  Mono<BasketData> addItem(String basketId, BasketDataItem item);
+
+  /**
+   * Sets the units of basket items, in a single call to the basket service. Empty if there is no such basket.
+   */
+  Mono<BasketData> updateQuantities(String basketId, List<UpdateBasketItemData> updates);
 }
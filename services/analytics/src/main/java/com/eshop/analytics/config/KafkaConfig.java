@@ -1,14 +1,14 @@
 package com.eshop.analytics.config;
 
+import com.eshop.shared.eventhandling.kafka.IntegrationEventMessageConverter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.support.converter.RecordMessageConverter;
-import org.springframework.kafka.support.converter.StringJsonMessageConverter;
 
 @Configuration
 public class KafkaConfig {
   @Bean
   public RecordMessageConverter converter() {
-    return new StringJsonMessageConverter();
+    return new IntegrationEventMessageConverter();
   }
 }
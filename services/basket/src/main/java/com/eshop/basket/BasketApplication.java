@@ -3,11 +3,9 @@ package com.eshop.basket;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.netflix.eureka.EnableEurekaClient;
-import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 @SpringBootApplication
 @EnableEurekaClient
-@EnableTransactionManagement
 public class BasketApplication {
   public static void main(String[] args) {
     SpringApplication.run(BasketApplication.class, args);
@@ -1,10 +1,14 @@
 package com.eshop.basket.config;
 
 import com.eshop.shared.eventhandling.IntegrationEvent;
+import com.eshop.shared.eventhandling.codec.IntegrationEventFormat;
+import com.eshop.shared.eventhandling.kafka.IntegrationEventMessageConverter;
+import com.eshop.shared.eventhandling.kafka.IntegrationEventSerializer;
 import lombok.RequiredArgsConstructor;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -17,10 +21,8 @@ import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.kafka.listener.DefaultAfterRollbackProcessor;
 import org.springframework.kafka.listener.SeekToCurrentErrorHandler;
 import org.springframework.kafka.support.converter.RecordMessageConverter;
-import org.springframework.kafka.support.converter.StringJsonMessageConverter;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
-import org.springframework.kafka.support.serializer.JsonSerializer;
 import org.springframework.kafka.transaction.KafkaTransactionManager;
 import org.springframework.util.backoff.FixedBackOff;
 
@@ -36,6 +38,9 @@ public class KafkaConfig {
   private final KafkaProperties kafkaProperties;
   private final KafkaTopics topics;
 
+  @Value("${app.kafka.event-format}")
+  private IntegrationEventFormat eventFormat;
+
   // Producer
   @Bean
   public SeekToCurrentErrorHandler errorHandler(
@@ -60,7 +65,8 @@ public class KafkaConfig {
   public Map<String, Object> producerConfigs() {
     var props = new HashMap<>(kafkaProperties.buildProducerProperties());
     props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-    props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+    props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, IntegrationEventSerializer.class);
+    props.put(IntegrationEventSerializer.FORMAT_CONFIG, eventFormat);
     return props;
   }
 
@@ -95,7 +101,7 @@ public class KafkaConfig {
   // Consumer
   @Bean
   public RecordMessageConverter converter() {
-    return new StringJsonMessageConverter();
+    return new IntegrationEventMessageConverter();
   }
 
   // Topics
@@ -114,6 +120,11 @@ public class KafkaConfig {
     return new NewTopic(topics.getProductPriceChanges(), 1, (short) 1);
   }
 
+  @Bean
+  public NewTopic productPriceChangeBatchesTopic() {
+    return new NewTopic(topics.getProductPriceChangeBatches(), 1, (short) 1);
+  }
+
   private ErrorHandlingDeserializer<Object> jsonDeserializer() {
     final var jsonDeserializer = new JsonDeserializer<>();
     jsonDeserializer.addTrustedPackages("*");
@@ -13,4 +13,5 @@ public class KafkaTopics {
   private String orders;
   private String orderCheckouts;
   private String productPriceChanges;
+  private String productPriceChangeBatches;
 }
@@ -1,13 +1,16 @@
 package com.eshop.basket.config;
 
-import com.eshop.basket.model.CustomerBasket;
+import com.eshop.basket.infrastructure.BasketItemFormat;
+import com.eshop.basket.infrastructure.BasketItemSerializer;
+import com.eshop.basket.infrastructure.StoredBasketItem;
 import io.lettuce.core.ClientOptions;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.context.annotation.Primary;
-import org.springframework.data.redis.connection.RedisConnectionFactory;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
 @Configuration
 public class RedisConfig {
@@ -28,18 +31,25 @@ public class RedisConfig {
   }
 
   /**
-   * Redis template use redis data access
-   *
-   * @param redisConnectionFactory redisConnectionFactory
-   * @return redisTemplate
+   * Basket hashes hold binary item fields next to plain text fields, so their values are left as bytes and items
+   * are serialized by {@link #basketItemSerializer}.
    */
   @Bean
-  @ConditionalOnMissingBean(name = "redisTemplate")
-  @Primary
-  public RedisTemplate<String, CustomerBasket> redisTemplate(RedisConnectionFactory redisConnectionFactory) {
-    RedisTemplate<String, CustomerBasket> template = new RedisTemplate<>();
-    template.setConnectionFactory(redisConnectionFactory);
-    template.setEnableTransactionSupport(true);
-    return template;
+  public ReactiveRedisTemplate<String, byte[]> basketRedisTemplate(ReactiveRedisConnectionFactory connectionFactory) {
+    var serializationContext = RedisSerializationContext.<String, byte[]>newSerializationContext()
+        .key(RedisSerializer.string())
+        .value(RedisSerializationContext.SerializationPair.byteArray())
+        .hashKey(RedisSerializer.string())
+        .hashValue(RedisSerializationContext.SerializationPair.byteArray())
+        .build();
+    return new ReactiveRedisTemplate<>(connectionFactory, serializationContext);
+  }
+
+  @Bean
+  public RedisSerializer<StoredBasketItem> basketItemSerializer(
+      @Value("${app.basket.serialization.format:Compact}") BasketItemFormat format,
+      @Value("${app.basket.serialization.compression-threshold:512}") int compressionThreshold
+  ) {
+    return new BasketItemSerializer(format, compressionThreshold);
   }
 }
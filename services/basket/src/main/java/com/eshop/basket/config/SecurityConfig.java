@@ -5,21 +5,23 @@ import com.eshop.security.EshopJwtDecoder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.annotation.Configuration;
-import org.springframework.context.event.EventListener;
+import org.springframework.context.annotation.Bean;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.http.HttpMethod;
-import org.springframework.security.authentication.event.AuthenticationSuccessEvent;
-import org.springframework.security.config.annotation.web.builders.HttpSecurity;
-import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
 import org.springframework.security.oauth2.jwt.Jwt;
-import org.springframework.security.oauth2.jwt.JwtDecoder;
-import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import static com.eshop.security.GrantedAuthoritiesUtils.scope;
 
-@Configuration
-public class SecurityConfig extends WebSecurityConfigurerAdapter {
+@EnableWebFluxSecurity
+public class SecurityConfig {
   private static final Logger logger = LoggerFactory.getLogger(SecurityConfig.class);
   private static final String BASKET_SCOPE = "basket";
 
@@ -32,33 +34,43 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
   @Value("${app.security.audience.basket}")
   private String basketAudience;
 
-  @Override
-  protected void configure(HttpSecurity http) throws Exception {
+  @Bean
+  SecurityWebFilterChain springSecurityFilterChain(ServerHttpSecurity http) {
     http
-        .antMatcher("/basket/**")
-        .authorizeRequests()
-        .antMatchers(HttpMethod.GET, "/basket/*").hasAuthority(scope(BASKET_SCOPE))
-        .antMatchers(HttpMethod.POST, "/basket/*").hasAuthority(scope(BASKET_SCOPE))
-        .antMatchers(HttpMethod.PUT, "/basket/*").hasAuthority(scope(BASKET_SCOPE))
-        .antMatchers(HttpMethod.DELETE, "/basket/*").hasAuthority(scope(BASKET_SCOPE))
+        .securityMatcher(ServerWebExchangeMatchers.pathMatchers("/basket/**"))
+        .csrf().disable()
+        .authorizeExchange()
+        .pathMatchers(HttpMethod.GET, "/basket/*").hasAuthority(scope(BASKET_SCOPE))
+        .pathMatchers(HttpMethod.POST, "/basket", "/basket/*").hasAuthority(scope(BASKET_SCOPE))
+        .pathMatchers(HttpMethod.PUT, "/basket/*").hasAuthority(scope(BASKET_SCOPE))
+        .pathMatchers(HttpMethod.DELETE, "/basket/*").hasAuthority(scope(BASKET_SCOPE))
+        .pathMatchers("/basket/*/items/**").hasAuthority(scope(BASKET_SCOPE))
+        .anyExchange().authenticated()
         .and()
         .oauth2ResourceServer()
         .jwt()
-        .decoder(jwtDecoder())
+        .jwtDecoder(jwtDecoder())
         .jwtAuthenticationConverter(jwtAuthenticationConverter());
-  }
 
-  @EventListener
-  public void authenticationSuccess(AuthenticationSuccessEvent event) {
-    logger.info("User {} authenticated", event.getAuthentication().getName());
+    return http.build();
   }
 
-  private JwtDecoder jwtDecoder() {
-    return new EshopJwtDecoder(issuer, basketAudience);
+  /**
+   * Tokens are verified by the blocking decoder shared with the servlet services. It remembers verified tokens, so
+   * only the first request of a token waits on the issuer, and never on an event loop thread.
+   */
+  private ReactiveJwtDecoder jwtDecoder() {
+    var decoder = new EshopJwtDecoder(issuer, basketAudience);
+    return token -> Mono.fromCallable(() -> decoder.decode(token)).subscribeOn(Schedulers.boundedElastic());
   }
 
-  private Converter<Jwt, JwtAuthenticationToken> jwtAuthenticationConverter() {
-    return new EshopJwtAuthenticationConverter(userNameAttribute);
+  private Converter<Jwt, Mono<AbstractAuthenticationToken>> jwtAuthenticationConverter() {
+    var converter = new EshopJwtAuthenticationConverter(userNameAttribute);
+    return jwt -> {
+      var authentication = converter.convert(jwt);
+      logger.info("User {} authenticated", authentication.getName());
+      return Mono.just(authentication);
+    };
   }
 
 }
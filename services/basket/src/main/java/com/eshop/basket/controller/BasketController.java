@@ -1,15 +1,20 @@
 package com.eshop.basket.controller;
 
 import com.eshop.basket.model.BasketCheckout;
+import com.eshop.basket.model.BasketItem;
+import com.eshop.basket.model.BasketItemQuantity;
 import com.eshop.basket.model.CustomerBasket;
 import com.eshop.basket.services.BasketService;
+import com.eshop.shared.rest.error.BadRequestException;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 
 import javax.validation.Valid;
+import java.util.List;
 import java.util.UUID;
 
 @RestController()
@@ -21,27 +26,54 @@ public class BasketController {
   private final BasketService basketService;
 
   @RequestMapping("{customerId}")
-  public ResponseEntity<CustomerBasket> getBasketById(@PathVariable String customerId) {
+  public Mono<ResponseEntity<CustomerBasket>> getBasketById(@PathVariable String customerId) {
     logger.info("Find basket from user: {}", customerId);
-    return ResponseEntity.ok(basketService.getBasketById(customerId));
+    return basketService.getBasketById(customerId).map(ResponseEntity::ok);
   }
 
   @RequestMapping(method = RequestMethod.POST)
-  public ResponseEntity<CustomerBasket> updateBasket(@RequestBody @Valid CustomerBasket basket) {
+  public Mono<ResponseEntity<CustomerBasket>> updateBasket(@RequestBody @Valid CustomerBasket basket) {
     logger.info("Update basket from user: {}", basket.getBuyerId());
-    return ResponseEntity.ok(basketService.updateBasket(basket));
+    return basketService.updateBasket(basket).map(ResponseEntity::ok);
+  }
+
+  @RequestMapping(path = "{customerId}/items", method = RequestMethod.POST)
+  public Mono<ResponseEntity<CustomerBasket>> addItem(@PathVariable String customerId, @RequestBody @Valid BasketItem item) {
+    logger.info("Add product {} to basket from user: {}", item.getProductId(), customerId);
+    if (item.getQuantity() == null) {
+      throw new BadRequestException("Invalid number of units");
+    }
+    return basketService.addItem(customerId, item).map(ResponseEntity::ok);
+  }
+
+  @RequestMapping(path = "{customerId}/items", method = RequestMethod.PUT)
+  public Mono<ResponseEntity<CustomerBasket>> updateQuantities(
+      @PathVariable String customerId,
+      @RequestBody @Valid List<BasketItemQuantity> quantities
+  ) {
+    logger.info("Update quantities of {} items in basket from user: {}", quantities.size(), customerId);
+    if (quantities.stream().anyMatch(quantity -> quantity.basketItemId() == null || quantity.newQuantity() == null)) {
+      throw new BadRequestException("Invalid basket item quantity");
+    }
+    return basketService.updateQuantities(customerId, quantities).map(ResponseEntity::ok);
+  }
+
+  @RequestMapping(path = "{customerId}/items/{itemId}", method = RequestMethod.DELETE)
+  public Mono<ResponseEntity<CustomerBasket>> removeItem(@PathVariable String customerId, @PathVariable String itemId) {
+    logger.info("Remove item {} from basket from user: {}", itemId, customerId);
+    return basketService.removeItem(customerId, itemId).map(ResponseEntity::ok);
   }
 
   @RequestMapping(path = "checkout", method = RequestMethod.POST)
-  public void checkout(@RequestBody @Valid BasketCheckout basketCheckout, @RequestHeader("x-requestid") String requestId) {
+  public Mono<Void> checkout(@RequestBody @Valid BasketCheckout basketCheckout, @RequestHeader("x-requestid") String requestId) {
     logger.info("Checkout basket for user: {}", basketCheckout.getBuyer());
     setRequestId(basketCheckout, requestId);
-    basketService.checkout(basketCheckout);
+    return basketService.checkout(basketCheckout);
   }
 
   @RequestMapping(value = "{customerId}", method = RequestMethod.DELETE)
-  public void deleteBasket(@PathVariable String customerId) {
-    basketService.deleteBasketForCustomer(customerId);
+  public Mono<Void> deleteBasket(@PathVariable String customerId) {
+    return basketService.deleteBasketForCustomer(customerId);
   }
 
   public void setRequestId(BasketCheckout basketCheckout, String requestId) {
@@ -0,0 +1,15 @@
+package com.eshop.basket.infrastructure;
+
+/**
+ * Formats basket items can be written in. Items in any of them can be read.
+ */
+public enum BasketItemFormat {
+  /**
+   * Versioned binary format, optionally compressed.
+   */
+  Compact,
+  /**
+   * JSON, the format of the first item-level baskets.
+   */
+  Json
+}
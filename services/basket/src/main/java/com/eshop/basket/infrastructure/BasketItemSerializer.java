@@ -0,0 +1,157 @@
+package com.eshop.basket.infrastructure;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Serializes basket items in the configured format and reads them in any format.
+ * <p>
+ * A compact item starts with a header byte: the format version in the low seven bits and a compression flag in
+ * the high bit. It is followed by a byte flagging the fields that are present and by the present fields. Items at
+ * least as large as the compression threshold are compressed with LZ4, the header of a compressed item is followed
+ * by the uncompressed size. JSON items always start with <code>{</code>, a version compact items never have.
+ */
+public class BasketItemSerializer implements RedisSerializer<StoredBasketItem> {
+  private static final int VERSION = 1;
+
+  private static final int VERSION_MASK = 0x7f;
+  private static final int COMPRESSED = 0x80;
+  private static final byte JSON_START = '{';
+
+  private static final int ID = 1;
+  private static final int PRODUCT_ID = 1 << 1;
+  private static final int PRODUCT_NAME = 1 << 2;
+  private static final int UNIT_PRICE = 1 << 3;
+  private static final int OLD_UNIT_PRICE = 1 << 4;
+  private static final int PICTURE_URL = 1 << 5;
+
+  private final BasketItemFormat format;
+  private final int compressionThreshold;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final LZ4Compressor compressor = LZ4Factory.fastestInstance().fastCompressor();
+  private final LZ4FastDecompressor decompressor = LZ4Factory.fastestInstance().fastDecompressor();
+
+  /**
+   * @param format               format items are written in
+   * @param compressionThreshold size from which compact items are compressed, 0 to never compress them
+   */
+  public BasketItemSerializer(BasketItemFormat format, int compressionThreshold) {
+    this.format = format;
+    this.compressionThreshold = compressionThreshold;
+  }
+
+  @Override
+  public byte[] serialize(StoredBasketItem item) {
+    if (item == null) {
+      return null;
+    }
+
+    try {
+      return format == BasketItemFormat.Json ? objectMapper.writeValueAsBytes(item) : writeCompact(item);
+    } catch (IOException e) {
+      throw new SerializationException("Could not serialize basket item " + item.id(), e);
+    }
+  }
+
+  @Override
+  public StoredBasketItem deserialize(byte[] bytes) {
+    if (bytes == null || bytes.length == 0) {
+      return null;
+    }
+
+    try {
+      return bytes[0] == JSON_START ? objectMapper.readValue(bytes, StoredBasketItem.class) : readCompact(bytes);
+    } catch (IOException | LZ4Exception e) {
+      throw new SerializationException("Could not deserialize basket item", e);
+    }
+  }
+
+  private byte[] writeCompact(StoredBasketItem item) throws IOException {
+    var fields = writeFields(item);
+
+    if (compressionThreshold > 0 && fields.length >= compressionThreshold) {
+      var compressed = new byte[1 + Integer.BYTES + compressor.maxCompressedLength(fields.length)];
+      var compressedLength = compressor.compress(fields, 0, fields.length, compressed, 1 + Integer.BYTES);
+      if (compressedLength + Integer.BYTES < fields.length) {
+        compressed[0] = (byte) (VERSION | COMPRESSED);
+        ByteBuffer.wrap(compressed, 1, Integer.BYTES).putInt(fields.length);
+        return Arrays.copyOf(compressed, 1 + Integer.BYTES + compressedLength);
+      }
+    }
+
+    var bytes = new byte[1 + fields.length];
+    bytes[0] = VERSION;
+    System.arraycopy(fields, 0, bytes, 1, fields.length);
+    return bytes;
+  }
+
+  private StoredBasketItem readCompact(byte[] bytes) throws IOException {
+    var header = bytes[0] & 0xff;
+    var version = header & VERSION_MASK;
+    if (version != VERSION) {
+      throw new SerializationException("Unsupported basket item format version " + version);
+    }
+
+    if ((header & COMPRESSED) == 0) {
+      return readFields(bytes, 1, bytes.length - 1);
+    }
+
+    var length = ByteBuffer.wrap(bytes, 1, Integer.BYTES).getInt();
+    var fields = decompressor.decompress(bytes, 1 + Integer.BYTES, length);
+    return readFields(fields, 0, fields.length);
+  }
+
+  private byte[] writeFields(StoredBasketItem item) throws IOException {
+    var bytes = new ByteArrayOutputStream(128);
+    var output = new DataOutputStream(bytes);
+
+    output.writeByte((item.id() != null ? ID : 0)
+        | (item.productId() != null ? PRODUCT_ID : 0)
+        | (item.productName() != null ? PRODUCT_NAME : 0)
+        | (item.unitPrice() != null ? UNIT_PRICE : 0)
+        | (item.oldUnitPrice() != null ? OLD_UNIT_PRICE : 0)
+        | (item.pictureUrl() != null ? PICTURE_URL : 0));
+    if (item.id() != null) {
+      output.writeUTF(item.id());
+    }
+    if (item.productId() != null) {
+      output.writeLong(item.productId());
+    }
+    if (item.productName() != null) {
+      output.writeUTF(item.productName());
+    }
+    if (item.unitPrice() != null) {
+      output.writeDouble(item.unitPrice());
+    }
+    if (item.oldUnitPrice() != null) {
+      output.writeDouble(item.oldUnitPrice());
+    }
+    if (item.pictureUrl() != null) {
+      output.writeUTF(item.pictureUrl());
+    }
+    return bytes.toByteArray();
+  }
+
+  private StoredBasketItem readFields(byte[] bytes, int offset, int length) throws IOException {
+    var input = new DataInputStream(new ByteArrayInputStream(bytes, offset, length));
+    var present = input.readUnsignedByte();
+
+    return new StoredBasketItem(
+        (present & ID) != 0 ? input.readUTF() : null,
+        (present & PRODUCT_ID) != 0 ? input.readLong() : null,
+        (present & PRODUCT_NAME) != 0 ? input.readUTF() : null,
+        (present & UNIT_PRICE) != 0 ? input.readDouble() : null,
+        (present & OLD_UNIT_PRICE) != 0 ? input.readDouble() : null,
+        (present & PICTURE_URL) != 0 ? input.readUTF() : null
+    );
+  }
+}
@@ -0,0 +1,222 @@
+package com.eshop.basket.infrastructure;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.lettuce.core.*;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.push.PushMessage;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.protocol.ProtocolVersion;
+import io.lettuce.core.resource.ClientResources;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process cache of basket hashes, kept coherent by Redis client-side caching. Baskets are read through a
+ * dedicated RESP3 connection with key tracking enabled, so Redis sends an invalidation message on that connection
+ * whenever a basket read through it changes, whichever instance changed it.
+ * <p>
+ * A read racing with an invalidation of the same basket does not cache its result. Cached baskets are dropped when
+ * the connection is lost, since invalidations may have been missed, and nothing is cached until tracking has been
+ * enabled again on the new connection.
+ * <p>
+ * The tracking connection goes to a single Redis server, so the near-cache cannot be enabled together with a
+ * cluster or sentinel configuration.
+ */
+@ConditionalOnProperty(prefix = "app.basket.near-cache", name = "enabled", havingValue = "true")
+@Component
+class BasketNearCache implements DisposableBean {
+  private static final Logger logger = LoggerFactory.getLogger(BasketNearCache.class);
+
+  private static final String INVALIDATE_MESSAGE = "invalidate";
+
+  private final RedisClient redisClient;
+  private final StatefulRedisConnection<String, byte[]> connection;
+  private final Cache<String, Map<String, byte[]>> baskets;
+  private final Map<String, Object> pendingReads = new ConcurrentHashMap<>();
+  private volatile boolean tracking;
+
+  private final Counter hitCounter;
+  private final Counter missCounter;
+  private final Counter invalidationCounter;
+
+  BasketNearCache(
+      RedisProperties redisProperties,
+      ClientResources clientResources,
+      MeterRegistry meterRegistry,
+      @Value("${app.basket.near-cache.maximum-size:10000}") long maximumSize,
+      @Value("${app.basket.near-cache.expire-after-access:PT10M}") Duration expireAfterAccess
+  ) {
+    var redisUri = redisUri(redisProperties);
+
+    this.baskets = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterAccess(expireAfterAccess)
+        .build();
+
+    hitCounter = Counter.builder("basket.near-cache.gets")
+        .description("Basket reads served by the near-cache or by Redis")
+        .tag("result", "hit")
+        .register(meterRegistry);
+    missCounter = Counter.builder("basket.near-cache.gets")
+        .description("Basket reads served by the near-cache or by Redis")
+        .tag("result", "miss")
+        .register(meterRegistry);
+    invalidationCounter = Counter.builder("basket.near-cache.invalidations")
+        .description("Invalidation messages received from Redis for cached baskets")
+        .register(meterRegistry);
+    Gauge.builder("basket.near-cache.size", baskets, Cache::estimatedSize)
+        .description("Baskets held by the near-cache")
+        .register(meterRegistry);
+
+    this.redisClient = RedisClient.create(clientResources, redisUri);
+    this.redisClient.setOptions(ClientOptions.builder()
+        .protocolVersion(ProtocolVersion.RESP3)
+        .disconnectedBehavior(ClientOptions.DisconnectedBehavior.REJECT_COMMANDS)
+        .autoReconnect(true)
+        .build());
+    this.redisClient.addListener(new RedisConnectionStateListener() {
+      @Override
+      public void onRedisConnected(RedisChannelHandler<?, ?> handler, SocketAddress address) {
+        if (handler == connection) {
+          enableTracking();
+        }
+      }
+
+      @Override
+      public void onRedisDisconnected(RedisChannelHandler<?, ?> handler) {
+        tracking = false;
+        invalidateAll();
+      }
+
+      @Override
+      public void onRedisExceptionCaught(RedisChannelHandler<?, ?> handler, Throwable cause) {
+      }
+    });
+
+    this.connection = redisClient.connect(RedisCodec.of(StringCodec.UTF8, ByteArrayCodec.INSTANCE));
+    this.connection.addListener(this::onPushMessage);
+    this.connection.sync().clientTracking(TrackingArgs.Builder.enabled());
+    this.tracking = true;
+  }
+
+  /**
+   * Returns the fields of given basket hash, empty if it does not exist.
+   */
+  Mono<Map<String, byte[]>> getFields(String basketKey) {
+    return Mono.defer(() -> {
+      var cached = baskets.getIfPresent(basketKey);
+      if (cached != null) {
+        hitCounter.increment();
+        return Mono.just(cached);
+      }
+      missCounter.increment();
+
+      var read = new Object();
+      var tracked = tracking;
+      pendingReads.put(basketKey, read);
+      return connection.reactive().hgetall(basketKey)
+          .collectMap(KeyValue::getKey, KeyValue::getValue)
+          .doOnNext(fields -> {
+            // Not cached if an invalidation arrived while reading
+            if (tracked && pendingReads.remove(basketKey, read)) {
+              baskets.put(basketKey, fields);
+            }
+          })
+          .doFinally(signal -> pendingReads.remove(basketKey, read));
+    });
+  }
+
+  /**
+   * Drops given basket after it has been changed by this instance, without waiting for its invalidation message.
+   */
+  void evict(String basketKey) {
+    pendingReads.remove(basketKey);
+    baskets.invalidate(basketKey);
+  }
+
+  @Override
+  public void destroy() {
+    connection.close();
+    redisClient.shutdown();
+  }
+
+  private void onPushMessage(PushMessage message) {
+    if (!INVALIDATE_MESSAGE.equals(message.getType())) {
+      return;
+    }
+
+    // No keys when the database has been flushed
+    var keys = message.getContent(StringCodec.UTF8::decodeKey).get(1);
+    if (keys == null) {
+      invalidateAll();
+      return;
+    }
+
+    for (var key : (List<?>) keys) {
+      evict((String) key);
+      invalidationCounter.increment();
+    }
+  }
+
+  private void invalidateAll() {
+    pendingReads.clear();
+    baskets.invalidateAll();
+  }
+
+  /**
+   * Tracking is a connection setting, it has to be enabled again on every new connection.
+   */
+  private void enableTracking() {
+    connection.async().clientTracking(TrackingArgs.Builder.enabled()).whenComplete((result, error) -> {
+      if (error != null) {
+        logger.warn("Could not enable tracking of baskets, the near-cache stays disabled", error);
+      } else {
+        invalidateAll();
+        tracking = true;
+      }
+    });
+  }
+
+  private static RedisURI redisUri(RedisProperties redisProperties) {
+    if (redisProperties.getCluster() != null || redisProperties.getSentinel() != null) {
+      throw new IllegalStateException(
+          "The basket near-cache requires a standalone Redis, disable it with app.basket.near-cache.enabled=false");
+    }
+    if (redisProperties.getUrl() != null) {
+      return RedisURI.create(redisProperties.getUrl());
+    }
+
+    var builder = RedisURI.builder()
+        .withHost(redisProperties.getHost())
+        .withPort(redisProperties.getPort())
+        .withDatabase(redisProperties.getDatabase())
+        .withSsl(redisProperties.isSsl());
+    if (redisProperties.getUsername() != null && redisProperties.getPassword() != null) {
+      builder.withAuthentication(redisProperties.getUsername(), redisProperties.getPassword());
+    } else if (redisProperties.getPassword() != null) {
+      builder.withPassword(redisProperties.getPassword().toCharArray());
+    }
+    if (redisProperties.getTimeout() != null) {
+      builder.withTimeout(redisProperties.getTimeout());
+    }
+    return builder.build();
+  }
+}
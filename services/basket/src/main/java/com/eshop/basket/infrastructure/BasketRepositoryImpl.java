@@ -1,48 +1,511 @@
 package com.eshop.basket.infrastructure;
 
+import com.eshop.basket.model.BasketItem;
+import com.eshop.basket.model.BasketPriceChange;
 import com.eshop.basket.model.BasketRepository;
+import com.eshop.basket.model.BasketStatus;
 import com.eshop.basket.model.CustomerBasket;
-import org.springframework.data.redis.core.HashOperations;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.ReactiveHashOperations;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveSetOperations;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.util.Optional;
-import java.util.Set;
-import java.util.UUID;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Collectors;
 
 import static java.util.Objects.isNull;
 
+/**
+ * Every basket is a hash under its own key, <code>basket:{customerId}</code>, and expires when it has not been
+ * updated for the configured time. The customer id is the hash tag of the key, so keys of other customer data can
+ * be placed in the same Redis Cluster slot.
+ * <p>
+ * Each item is kept in the fields <code>item:{id}</code>, <code>quantity:{id}</code>, <code>position:{id}</code>
+ * and <code>item-product:{id}</code>, and <code>product:{productId}</code> maps its product to it, so items of the
+ * same product are merged into one when a whole basket is written. Item fields are written by the basket item
+ * serializer, all other fields are plain text. Changes of items are made by Lua scripts, so they are atomic and
+ * concurrent changes of the same basket cannot overwrite each other.
+ * <p>
+ * A set per product holds the customers whose basket contains the product, so that a price change only reads
+ * the baskets it affects. The sets may contain customers that no longer hold the product, but not the other way
+ * around: a product is added to the index before the basket is written and again after, and it is removed only
+ * for the products a write actually removed, after the write. A removal is followed by a check of the basket, and
+ * the product is added back if a concurrent write has put it in the basket again.
+ * <p>
+ * A change of an item only indexes the product it changes. Adding a product gives its set twice the basket time to
+ * live, and all products of a basket are indexed again by the first change made after one basket time to live,
+ * which <code>indexed-at</code> records. So a set outlives the baskets it lists and expires once no basket with
+ * its product is written any more. Customers whose basket expired meanwhile are removed from a set by the next
+ * price change of its product.
+ * <p>
+ * When the near-cache is enabled, baskets are read through it and evicted from it by every change made here.
+ * <p>
+ * All commands are non-blocking and use the connection shared by all requests, none of them needs a connection of
+ * its own. Commands that do not depend on each other, like the index changes of a basket or the price changes of
+ * many baskets, are sent concurrently and so are pipelined on it.
+ */
 @Repository
 public class BasketRepositoryImpl implements BasketRepository {
-  private static final String BASKET_KEY = "BASKET";
+  private static final Logger logger = LoggerFactory.getLogger(BasketRepositoryImpl.class);
 
-  private final HashOperations<String, String, CustomerBasket> hashOperations;
+  private static final String BASKET_KEY_PREFIX = "basket:{";
+  private static final String BASKET_KEY_SUFFIX = "}";
+  private static final String PRODUCT_BUYERS_KEY_PREFIX = "BASKET_PRODUCT:";
+  private static final int PRICE_UPDATE_CONCURRENCY = 256;
 
-  public BasketRepositoryImpl(RedisTemplate<String, CustomerBasket> redisTemplate) {
-    this.hashOperations = redisTemplate.opsForHash();
-  }
+  private static final String STATUS_FIELD = "status";
+  private static final String SEQUENCE_FIELD = "sequence";
+  private static final String ITEM_FIELD_PREFIX = "item:";
+  private static final String QUANTITY_FIELD_PREFIX = "quantity:";
+  private static final String POSITION_FIELD_PREFIX = "position:";
+  private static final String ITEM_PRODUCT_FIELD_PREFIX = "item-product:";
+  private static final String PRODUCT_FIELD_PREFIX = "product:";
+  private static final String INDEXED_AT_FIELD = "indexed-at";
 
-  @Override
-  public Optional<CustomerBasket> getBasket(String customerId) {
-    return Optional.ofNullable(hashOperations.get(BASKET_KEY, customerId));
+  private static final int MAX_PRICE_UPDATE_ATTEMPTS = 3;
+
+  private static final RedisScript<byte[]> ADD_ITEM =
+      RedisScript.of(new ClassPathResource("scripts/basket-add-item.lua"), byte[].class);
+  @SuppressWarnings("rawtypes")
+  private static final RedisScript<List> SET_QUANTITIES =
+      RedisScript.of(new ClassPathResource("scripts/basket-set-quantities.lua"), List.class);
+  @SuppressWarnings("rawtypes")
+  private static final RedisScript<List> REPLACE =
+      RedisScript.of(new ClassPathResource("scripts/basket-replace.lua"), List.class);
+  private static final RedisScript<Long> REPLACE_ITEM =
+      RedisScript.of(new ClassPathResource("scripts/basket-replace-item.lua"), Long.class);
+  private static final RedisScript<Long> MARK_INDEXED =
+      RedisScript.of(new ClassPathResource("scripts/basket-mark-indexed.lua"), Long.class);
+
+  private final ReactiveStringRedisTemplate redisTemplate;
+  private final ReactiveRedisTemplate<String, byte[]> basketRedisTemplate;
+  private final ReactiveHashOperations<String, String, byte[]> basketFields;
+  private final ReactiveSetOperations<String, String> productBuyers;
+  private final RedisSerializer<StoredBasketItem> itemSerializer;
+  private final LegacyBasketStorage legacyBasketStorage;
+  private final Optional<BasketNearCache> nearCache;
+  private final Duration basketTtl;
+  private final Duration productIndexTtl;
+  private final byte[] basketTtlSeconds;
+
+  public BasketRepositoryImpl(
+      ReactiveStringRedisTemplate redisTemplate,
+      ReactiveRedisTemplate<String, byte[]> basketRedisTemplate,
+      RedisSerializer<StoredBasketItem> itemSerializer,
+      LegacyBasketStorage legacyBasketStorage,
+      Optional<BasketNearCache> nearCache,
+      @Value("${app.basket.ttl:P30D}") Duration basketTtl
+  ) {
+    this.redisTemplate = redisTemplate;
+    this.basketRedisTemplate = basketRedisTemplate;
+    this.basketFields = basketRedisTemplate.opsForHash();
+    this.productBuyers = redisTemplate.opsForSet();
+    this.itemSerializer = itemSerializer;
+    this.legacyBasketStorage = legacyBasketStorage;
+    this.nearCache = nearCache;
+    this.basketTtl = basketTtl;
+    this.productIndexTtl = basketTtl.multipliedBy(2);
+    this.basketTtlSeconds = text(basketTtl.toSeconds());
   }
 
   @Override
-  public Set<String> getUsers() {
-    return hashOperations.keys(BASKET_KEY);
+  public Mono<CustomerBasket> getBasket(String customerId) {
+    return readFields(basketKey(customerId))
+        .filter(fields -> !fields.isEmpty())
+        .map(fields -> toBasket(customerId, fields))
+        // Not moved from the legacy hash yet
+        .switchIfEmpty(Mono.defer(() -> legacyBasketStorage.getBasket(customerId)
+            .flatMap(basket -> importBasket(basket).thenReturn(basket))));
   }
 
   @Override
-  public CustomerBasket updateBasket(CustomerBasket basket) {
+  public Mono<CustomerBasket> updateBasket(CustomerBasket basket) {
     basket.getItems()
         .stream().filter(basketItem -> isNull(basketItem.getId()))
         .forEach(basketItem -> basketItem.setId(UUID.randomUUID().toString()));
-    hashOperations.put(BASKET_KEY, basket.getBuyerId(), basket);
-    return basket;
+
+    var customerId = basket.getBuyerId();
+    var productIds = productIds(basket);
+
+    return addToProductIndex(customerId, productIds)
+        .then(replace(basket, false))
+        .flatMap(removedProductIds -> addToProductIndex(customerId, productIds)
+            .then(legacyBasketStorage.deleteBasket(customerId))
+            .then(removeFromProductIndex(customerId, removedProductIds)))
+        .thenReturn(basket);
+  }
+
+  @Override
+  public Mono<CustomerBasket> addItem(String customerId, BasketItem item) {
+    // Used only if the basket does not contain the product yet
+    item.setId(UUID.randomUUID().toString());
+    var args = List.of(
+        basketTtlSeconds,
+        text(item.getProductId()),
+        text(item.getId()),
+        encode(item),
+        text(item.getQuantity())
+    );
+
+    return moveLegacyBasket(customerId)
+        .then(addToProductIndex(customerId, item.getProductId()))
+        .thenMany(basketRedisTemplate.execute(ADD_ITEM, List.of(basketKey(customerId)), args))
+        .then(evictFromNearCache(customerId))
+        .then(addToProductIndex(customerId, item.getProductId()))
+        .then(Mono.defer(() -> getChangedBasket(customerId)));
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public Mono<CustomerBasket> updateQuantities(String customerId, Map<String, Integer> quantities) {
+    var args = new ArrayList<byte[]>(quantities.size() * 2 + 1);
+    args.add(basketTtlSeconds);
+    quantities.forEach((itemId, quantity) -> {
+      args.add(text(itemId));
+      args.add(text(quantity));
+    });
+
+    return moveLegacyBasket(customerId)
+        .thenMany(basketRedisTemplate.execute(SET_QUANTITIES, List.of(basketKey(customerId)), args))
+        .flatMapIterable(removedProductIds -> (List<byte[]>) removedProductIds)
+        .map(productId -> Long.valueOf(fromText(productId)))
+        .collectList()
+        .flatMap(removedProductIds -> evictFromNearCache(customerId)
+            .then(removeFromProductIndex(customerId, removedProductIds)))
+        .then(Mono.defer(() -> getChangedBasket(customerId)));
   }
 
   @Override
-  public void deleteBasket(String customerId) {
-    hashOperations.delete(BASKET_KEY, customerId);
+  public Mono<Integer> updatePrices(Collection<BasketPriceChange> priceChanges) {
+    var priceChangesByProductId = priceChanges.stream()
+        .collect(Collectors.toMap(BasketPriceChange::productId, priceChange -> priceChange, (first, last) -> last));
+    var productIds = List.copyOf(priceChangesByProductId.keySet());
+
+    // Product sets are read one by one, a union of several keys would fail when they are in different slots
+    return Flux.fromIterable(productIds)
+        .flatMap(productId -> productBuyers.members(productBuyersKey(productId)))
+        .distinct()
+        .flatMap(customerId -> updatePrices(customerId, productIds, priceChangesByProductId), PRICE_UPDATE_CONCURRENCY)
+        .filter(Boolean::booleanValue)
+        .count()
+        .map(Long::intValue);
+  }
+
+  /**
+   * Changes prices in the basket of given customer: finds the items of the changed products and replaces each one
+   * that still has the old price, if it has not changed meanwhile.
+   *
+   * @return whether the basket has been changed
+   */
+  private Mono<Boolean> updatePrices(
+      String customerId,
+      List<Long> productIds,
+      Map<Long, BasketPriceChange> priceChangesByProductId
+  ) {
+    var productFields = productIds.stream()
+        .map(productId -> PRODUCT_FIELD_PREFIX + productId)
+        .collect(Collectors.toList());
+
+    return basketFields.multiGet(basketKey(customerId), productFields)
+        .flatMap(itemIds -> {
+          if (itemIds.stream().allMatch(Objects::isNull)) {
+            return updateLegacyBasketPrices(customerId, priceChangesByProductId)
+                .switchIfEmpty(Mono.defer(() -> removeFromProductIndex(customerId, productIds).thenReturn(false)));
+          }
+
+          var staleProductIds = new ArrayList<Long>();
+          var priceUpdates = new ArrayList<Mono<Boolean>>();
+          for (var i = 0; i < productIds.size(); i++) {
+            var priceChange = priceChangesByProductId.get(productIds.get(i));
+            if (itemIds.get(i) == null) {
+              staleProductIds.add(priceChange.productId());
+            } else {
+              var itemId = fromText(itemIds.get(i));
+              priceUpdates.add(updatePrice(customerId, itemId, priceChange.oldPrice(), priceChange.newPrice(), 1));
+            }
+          }
+
+          return removeFromProductIndex(customerId, staleProductIds)
+              .thenMany(Flux.merge(priceUpdates))
+              .any(Boolean::booleanValue);
+        });
+  }
+
+  /**
+   * Changes prices in the basket of given customer if it is still in the legacy hash, moving it first.
+   *
+   * @return whether the basket has been changed, empty if the customer has no legacy basket
+   */
+  private Mono<Boolean> updateLegacyBasketPrices(String customerId, Map<Long, BasketPriceChange> priceChangesByProductId) {
+    return legacyBasketStorage.getBasket(customerId)
+        .flatMap(legacyBasket -> moveLegacyBasket(customerId)
+            .thenMany(Flux.fromIterable(legacyBasket.getItems()))
+            .filter(item -> priceChangesByProductId.containsKey(item.getProductId()))
+            .flatMap(item -> {
+              var priceChange = priceChangesByProductId.get(item.getProductId());
+              return updatePrice(customerId, item.getId(), priceChange.oldPrice(), priceChange.newPrice(), 1);
+            })
+            .any(Boolean::booleanValue));
+  }
+
+  /**
+   * Changes the price of a basket item, if it still has the old price. The item is replaced only if it has not
+   * changed since it was read, otherwise it is read again.
+   *
+   * @return whether the price has been changed
+   */
+  private Mono<Boolean> updatePrice(String customerId, String itemId, Double oldPrice, Double newPrice, int attempt) {
+    var key = basketKey(customerId);
+
+    return basketFields.get(key, ITEM_FIELD_PREFIX + itemId)
+        .flatMap(storedItem -> {
+          var item = decode(storedItem);
+          if (!Objects.equals(item.unitPrice(), oldPrice)) {
+            return Mono.just(false);
+          }
+
+          var args = List.of(text(itemId), storedItem, encode(withPrice(item, newPrice)));
+          return basketRedisTemplate.execute(REPLACE_ITEM, List.of(key), args)
+              .next()
+              .flatMap(replaced -> {
+                if (replaced == 1) {
+                  return evictFromNearCache(customerId).thenReturn(true);
+                }
+                if (attempt < MAX_PRICE_UPDATE_ATTEMPTS) {
+                  return updatePrice(customerId, itemId, oldPrice, newPrice, attempt + 1);
+                }
+
+                logger.warn("Price of basket item {} of customer {} changed concurrently, it has not been updated", itemId, customerId);
+                return Mono.just(false);
+              });
+        })
+        .defaultIfEmpty(false);
+  }
+
+  @Override
+  public Mono<Void> changeStatus(String customerId, BasketStatus status) {
+    return basketFields.put(basketKey(customerId), STATUS_FIELD, text(status.name()))
+        .then(evictFromNearCache(customerId));
+  }
+
+  @Override
+  public Mono<Void> deleteBasket(String customerId) {
+    return getBasket(customerId)
+        .map(this::productIds)
+        .defaultIfEmpty(Set.of())
+        .flatMap(productIds -> redisTemplate.delete(basketKey(customerId))
+            .then(evictFromNearCache(customerId))
+            .then(legacyBasketStorage.deleteBasket(customerId))
+            .then(removeFromProductIndex(customerId, productIds)));
+  }
+
+  /**
+   * Stores a basket read from the legacy hash, unless the customer already has a basket under its own key.
+   */
+  public Mono<Void> importBasket(CustomerBasket basket) {
+    return addToProductIndex(basket.getBuyerId(), productIds(basket))
+        .then(replace(basket, true))
+        .then(addToProductIndex(basket.getBuyerId(), productIds(basket)));
+  }
+
+  /**
+   * Moves the basket of given customer from the legacy hash before it is changed, so that the change does not
+   * create a new basket without the items of the legacy one.
+   */
+  private Mono<Void> moveLegacyBasket(String customerId) {
+    return legacyBasketStorage.getBasket(customerId)
+        .flatMap(basket -> importBasket(basket).then(legacyBasketStorage.deleteBasket(customerId)));
+  }
+
+  /**
+   * Writes given basket.
+   *
+   * @return ids of the products that were in the basket and are not in the new one
+   */
+  @SuppressWarnings("unchecked")
+  private Mono<List<Long>> replace(CustomerBasket basket, boolean onlyIfAbsent) {
+    mergeItemsOfSameProduct(basket);
+
+    var items = basket.getItems();
+    var args = new ArrayList<byte[]>(items.size() * 10 + 8);
+    args.add(basketTtlSeconds);
+    args.add(text(onlyIfAbsent ? "1" : "0"));
+    args.addAll(List.of(text(STATUS_FIELD), text(basket.getStatus().name())));
+    args.addAll(List.of(text(SEQUENCE_FIELD), text(items.size())));
+    // All products are indexed around every replace
+    args.addAll(List.of(text(INDEXED_AT_FIELD), text(Instant.now().getEpochSecond())));
+
+    for (var position = 0; position < items.size(); position++) {
+      var item = items.get(position);
+      var productId = String.valueOf(item.getProductId());
+      args.addAll(List.of(
+          text(ITEM_FIELD_PREFIX + item.getId()), encode(item),
+          text(QUANTITY_FIELD_PREFIX + item.getId()), text(Objects.requireNonNullElse(item.getQuantity(), 0)),
+          text(POSITION_FIELD_PREFIX + item.getId()), text(position + 1),
+          text(ITEM_PRODUCT_FIELD_PREFIX + item.getId()), text(productId),
+          text(PRODUCT_FIELD_PREFIX + productId), text(item.getId())
+      ));
+    }
+
+    return basketRedisTemplate.execute(REPLACE, List.of(basketKey(basket.getBuyerId())), args)
+        .flatMapIterable(removedProductIds -> (List<byte[]>) removedProductIds)
+        .map(productId -> Long.valueOf(fromText(productId)))
+        .collectList()
+        .flatMap(removedProductIds -> evictFromNearCache(basket.getBuyerId()).thenReturn(removedProductIds));
+  }
+
+  /**
+   * Merges the items of the same product into the first one, adding up their units like adding an item does.
+   */
+  private void mergeItemsOfSameProduct(CustomerBasket basket) {
+    var itemsByProductId = new LinkedHashMap<Long, BasketItem>();
+    basket.getItems().forEach(item -> itemsByProductId.merge(item.getProductId(), item, (first, same) -> new BasketItem(
+        first.getId(), first.getProductId(), first.getProductName(), first.getUnitPrice(), first.getOldUnitPrice(),
+        Objects.requireNonNullElse(first.getQuantity(), 0) + Objects.requireNonNullElse(same.getQuantity(), 0),
+        first.getPictureUrl()
+    )));
+
+    if (itemsByProductId.size() < basket.getItems().size()) {
+      basket.getItems().clear();
+      basket.getItems().addAll(itemsByProductId.values());
+    }
+  }
+
+  /**
+   * Reads a basket after one of its items changed. All of its products are indexed again if they have not been
+   * for one basket time to live, so that their sets do not expire before the basket.
+   */
+  private Mono<CustomerBasket> getChangedBasket(String customerId) {
+    var key = basketKey(customerId);
+
+    return readFields(key)
+        .filter(fields -> !fields.isEmpty())
+        .flatMap(fields -> {
+          var basket = toBasket(customerId, fields);
+          var now = Instant.now().getEpochSecond();
+          var indexedAt = Long.parseLong(textField(fields, INDEXED_AT_FIELD, "0"));
+          if (now - indexedAt < basketTtl.toSeconds()) {
+            return Mono.just(basket);
+          }
+
+          return addToProductIndex(customerId, productIds(basket))
+              .thenMany(basketRedisTemplate.execute(MARK_INDEXED, List.of(key), List.of(text(now))))
+              .then(evictFromNearCache(customerId))
+              .thenReturn(basket);
+        });
+  }
+
+  private Mono<Map<String, byte[]>> readFields(String basketKey) {
+    return nearCache.map(cache -> cache.getFields(basketKey))
+        .orElseGet(() -> basketFields.entries(basketKey).collectMap(Map.Entry::getKey, Map.Entry::getValue));
+  }
+
+  private CustomerBasket toBasket(String customerId, Map<String, byte[]> fields) {
+    var basket = new CustomerBasket(customerId);
+    basket.changeStatusTo(BasketStatus.valueOf(textField(fields, STATUS_FIELD, BasketStatus.New.name())));
+
+    fields.entrySet().stream()
+        .filter(field -> field.getKey().startsWith(ITEM_FIELD_PREFIX))
+        .map(field -> field.getKey().substring(ITEM_FIELD_PREFIX.length()))
+        .sorted(Comparator.comparingLong(itemId -> Long.parseLong(textField(fields, POSITION_FIELD_PREFIX + itemId, "0"))))
+        .map(itemId -> {
+          var item = decode(fields.get(ITEM_FIELD_PREFIX + itemId));
+          var quantity = Integer.valueOf(textField(fields, QUANTITY_FIELD_PREFIX + itemId, "0"));
+          return new BasketItem(
+              item.id(), item.productId(), item.productName(), item.unitPrice(), item.oldUnitPrice(), quantity, item.pictureUrl()
+          );
+        })
+        .forEach(basket.getItems()::add);
+    return basket;
+  }
+
+  private byte[] encode(BasketItem item) {
+    return encode(new StoredBasketItem(
+        item.getId(), item.getProductId(), item.getProductName(), item.getUnitPrice(), item.getOldUnitPrice(), item.getPictureUrl()
+    ));
+  }
+
+  private StoredBasketItem withPrice(StoredBasketItem item, Double newPrice) {
+    return new StoredBasketItem(
+        item.id(), item.productId(), item.productName(), newPrice, item.unitPrice(), item.pictureUrl()
+    );
+  }
+
+  private byte[] encode(StoredBasketItem item) {
+    return itemSerializer.serialize(item);
+  }
+
+  private StoredBasketItem decode(byte[] item) {
+    return itemSerializer.deserialize(item);
+  }
+
+  private String textField(Map<String, byte[]> fields, String field, String defaultValue) {
+    var value = fields.get(field);
+    return value == null ? defaultValue : fromText(value);
+  }
+
+  private static byte[] text(Object value) {
+    return String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static String fromText(byte[] value) {
+    return new String(value, StandardCharsets.UTF_8);
+  }
+
+  private Mono<Void> evictFromNearCache(String customerId) {
+    return Mono.fromRunnable(() -> nearCache.ifPresent(cache -> cache.evict(basketKey(customerId))));
+  }
+
+  /**
+   * Adds given products of a basket to the index and gives their sets twice the basket time to live.
+   */
+  private Mono<Void> addToProductIndex(String customerId, Collection<Long> productIds) {
+    return Flux.fromIterable(productIds)
+        .flatMap(productId -> addToProductIndex(customerId, productId))
+        .then();
+  }
+
+  private Mono<Void> addToProductIndex(String customerId, Long productId) {
+    return productBuyers.add(productBuyersKey(productId), customerId)
+        .then(redisTemplate.expire(productBuyersKey(productId), productIndexTtl))
+        .then();
+  }
+
+  /**
+   * Removes given products of a basket from the index, unless the basket contains them again.
+   */
+  private Mono<Void> removeFromProductIndex(String customerId, Collection<Long> productIds) {
+    return Flux.fromIterable(productIds)
+        .flatMap(productId -> productBuyers.remove(productBuyersKey(productId), customerId)
+            .then(basketFields.hasKey(basketKey(customerId), PRODUCT_FIELD_PREFIX + productId))
+            .filter(Boolean::booleanValue)
+            .flatMap(readded -> addToProductIndex(customerId, productId)))
+        .then();
+  }
+
+  private Set<Long> productIds(CustomerBasket basket) {
+    return basket.getItems().stream()
+        .map(BasketItem::getProductId)
+        .collect(Collectors.toSet());
+  }
+
+  private String basketKey(String customerId) {
+    return BASKET_KEY_PREFIX + customerId + BASKET_KEY_SUFFIX;
+  }
+
+  private String productBuyersKey(Long productId) {
+    return PRODUCT_BUYERS_KEY_PREFIX + productId;
   }
 }
@@ -0,0 +1,42 @@
+package com.eshop.basket.infrastructure;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves baskets from the legacy <code>BASKET</code> hash to their own keys while the service is running. Until
+ * the hash is gone, the repository also reads baskets that have not been moved yet from the hash, so the
+ * migration can run on any number of instances at once.
+ */
+@RequiredArgsConstructor
+@Component
+public class BasketStorageMigration {
+  private static final Logger logger = LoggerFactory.getLogger(BasketStorageMigration.class);
+
+  private final LegacyBasketStorage legacyBasketStorage;
+  private final BasketRepositoryImpl basketRepository;
+
+  @Value("${app.basket.migration.batch-size:500}")
+  private int batchSize;
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void migrate() {
+    legacyBasketStorage.checkDrained()
+        .filter(drained -> !drained)
+        .doOnNext(drained -> logger.info("Moving baskets from the legacy basket hash to basket keys"))
+        .flatMap(drained -> legacyBasketStorage.getBaskets(batchSize)
+            .concatMap(basket -> basketRepository.importBasket(basket)
+                .then(legacyBasketStorage.deleteBasket(basket.getBuyerId()))
+                .thenReturn(basket))
+            .count())
+        .flatMap(migrated -> legacyBasketStorage.checkDrained()
+            .doOnNext(drained -> logger.info("Moved {} baskets to basket keys", migrated)))
+        .then()
+        .subscribe(null, error -> logger.error("Moving baskets from the legacy basket hash failed", error));
+  }
+}
@@ -1,8 +1,50 @@
 package com.eshop.basket.infrastructure;
 
-import com.eshop.shared.rest.error.ControllerExceptionHandler;
+import com.eshop.shared.rest.error.BadRequestException;
+import com.eshop.shared.rest.error.HttpErrorInfo;
+import com.eshop.shared.rest.error.NotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+/**
+ * Reactive counterpart of the shared <code>ControllerExceptionHandler</code>, which needs a servlet request. Errors
+ * are answered with the same statuses and bodies as by the other services.
+ */
 @RestControllerAdvice
-public class GlobalControllerExceptionHandler extends ControllerExceptionHandler {
+public class GlobalControllerExceptionHandler {
+  private static final Logger logger = LoggerFactory.getLogger(GlobalControllerExceptionHandler.class);
+
+  @ResponseStatus(NOT_FOUND)
+  @ExceptionHandler(NotFoundException.class)
+  public HttpErrorInfo handleNotFoundExceptions(NotFoundException ex, ServerHttpRequest request) {
+    return createHttpErrorInfo(NOT_FOUND, ex, request);
+  }
+
+  @ResponseStatus(NOT_FOUND)
+  @ExceptionHandler(BadRequestException.class)
+  public HttpErrorInfo handleBadRequestExceptions(BadRequestException ex, ServerHttpRequest request) {
+    return createHttpErrorInfo(NOT_FOUND, ex, request);
+  }
+
+  @ResponseStatus(INTERNAL_SERVER_ERROR)
+  @ExceptionHandler(Exception.class)
+  public HttpErrorInfo handleUnhandledExceptions(Exception ex, ServerHttpRequest request) {
+    return createHttpErrorInfo(INTERNAL_SERVER_ERROR, ex, request);
+  }
+
+  private HttpErrorInfo createHttpErrorInfo(HttpStatus httpStatus, Exception ex, ServerHttpRequest request) {
+    final var path = request.getPath().contextPath().value();
+    final var message = ex.getMessage();
+
+    logger.debug("Returning HTTP status: {} for path: {}, message: {}", httpStatus, path, message);
+    return new HttpErrorInfo(httpStatus, path, message);
+  }
 }
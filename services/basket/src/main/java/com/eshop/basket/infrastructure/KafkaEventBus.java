@@ -6,6 +6,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 
+/**
+ * Publishes integration events to a Kafka topic. The producer is transactional, so events published outside of a
+ * transaction, as by reactive requests, are sent in a transaction of their own.
+ */
 class KafkaEventBus implements EventBus {
   private static final Logger logger = LoggerFactory.getLogger(KafkaEventBus.class);
   private final KafkaTemplate<String, IntegrationEvent> kafkaTemplate;
@@ -22,6 +26,10 @@ class KafkaEventBus implements EventBus {
   @Override
   public void publish(IntegrationEvent event) {
     logger.info("Publishing event: {} to kafka topic: {}", event.getClass().getSimpleName(), topic);
-    kafkaTemplate.send(topic, event);
+    if (kafkaTemplate.isTransactional() && !kafkaTemplate.inTransaction()) {
+      kafkaTemplate.executeInTransaction(operations -> operations.send(topic, event));
+    } else {
+      kafkaTemplate.send(topic, event);
+    }
   }
 }
@@ -0,0 +1,59 @@
+package com.eshop.basket.infrastructure;
+
+import com.eshop.basket.model.CustomerBasket;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveHashOperations;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Baskets stored as fields of the single <code>BASKET</code> hash, before every basket had its own key. The hash
+ * key, its fields and the baskets were written with JDK serialization.
+ * <p>
+ * Once the hash has been migrated and removed, the storage is marked as drained and is no longer read.
+ */
+@Component
+class LegacyBasketStorage {
+  private static final String BASKET_KEY = "BASKET";
+
+  private final ReactiveRedisTemplate<Object, Object> redisTemplate;
+  private final ReactiveHashOperations<Object, String, CustomerBasket> hashOperations;
+  private volatile boolean drained;
+
+  LegacyBasketStorage(ReactiveRedisConnectionFactory redisConnectionFactory) {
+    this.redisTemplate = new ReactiveRedisTemplate<>(redisConnectionFactory, RedisSerializationContext.java());
+    this.hashOperations = redisTemplate.opsForHash();
+  }
+
+  Mono<CustomerBasket> getBasket(String customerId) {
+    return drained ? Mono.empty() : hashOperations.get(BASKET_KEY, customerId);
+  }
+
+  Mono<Void> deleteBasket(String customerId) {
+    return drained ? Mono.empty() : hashOperations.remove(BASKET_KEY, customerId).then();
+  }
+
+  /**
+   * Returns all stored baskets, reading the hash incrementally.
+   */
+  Flux<CustomerBasket> getBaskets(int batchSize) {
+    return hashOperations.scan(BASKET_KEY, ScanOptions.scanOptions().count(batchSize).build())
+        .map(Map.Entry::getValue);
+  }
+
+  /**
+   * Marks the storage as drained if the hash no longer exists.
+   *
+   * @return whether the storage is drained
+   */
+  Mono<Boolean> checkDrained() {
+    return redisTemplate.hasKey(BASKET_KEY)
+        .map(exists -> drained = !exists);
+  }
+}
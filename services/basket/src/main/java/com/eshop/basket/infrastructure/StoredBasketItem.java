@@ -0,0 +1,14 @@
+package com.eshop.basket.infrastructure;
+
+/**
+ * Basket item as stored in its item field. Units are stored apart, so that they can be changed by scripts.
+ */
+public record StoredBasketItem(
+    String id,
+    Long productId,
+    String productName,
+    Double unitPrice,
+    Double oldUnitPrice,
+    String pictureUrl
+) {
+}
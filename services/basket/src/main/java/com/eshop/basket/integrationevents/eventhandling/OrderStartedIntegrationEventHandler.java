@@ -20,6 +20,6 @@ public class OrderStartedIntegrationEventHandler implements IntegrationEventHand
   @Override
   public void handle(OrderStartedIntegrationEvent event) {
     logger.info("Handling integration event: {} ({})", event.getId(), event.getClass().getSimpleName());
-    basketRepository.deleteBasket(event.getUserId());
+    basketRepository.deleteBasket(event.getUserId()).block();
   }
 }
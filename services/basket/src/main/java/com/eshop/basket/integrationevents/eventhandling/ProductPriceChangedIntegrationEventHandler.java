@@ -1,8 +1,8 @@
 package com.eshop.basket.integrationevents.eventhandling;
 
+import com.eshop.basket.integrationevents.events.ProductPriceChange;
 import com.eshop.basket.integrationevents.events.ProductPriceChangedIntegrationEvent;
-import com.eshop.basket.model.BasketRepository;
-import com.eshop.basket.model.CustomerBasket;
+import com.eshop.basket.services.BasketService;
 import com.eshop.shared.eventhandling.IntegrationEventHandler;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
@@ -10,37 +10,26 @@ import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
+/**
+ * Handles single price changes still on the topic from before the catalog published them in batches, see
+ * {@link ProductPricesChangedIntegrationEventHandler}.
+ */
 @RequiredArgsConstructor
 @Component
 public class ProductPriceChangedIntegrationEventHandler implements IntegrationEventHandler<ProductPriceChangedIntegrationEvent> {
   private static final Logger logger = LoggerFactory.getLogger(ProductPriceChangedIntegrationEventHandler.class);
 
-  private final BasketRepository basketRepository;
+  private final BasketService basketService;
 
   @KafkaListener(groupId = "product-price-changes-group", topics = "${spring.kafka.consumer.topic.productPriceChanges}")
   @Override
   public void handle(ProductPriceChangedIntegrationEvent event) {
     logger.info("Handling integration event: {} ({})", event.getId(), event.getClass().getSimpleName());
 
-    basketRepository.getUsers().forEach(id -> basketRepository.getBasket(id)
-        .ifPresent(basket -> updatePriceInBasketItems(
-            event.getProductId(),
-            event.getNewPrice(),
-            event.getOldPrice(),
-            basket
-        ))
-    );
-  }
-
-  private void updatePriceInBasketItems(Long productId, Double newPrice, Double oldPrice, CustomerBasket basket) {
-    basket.getItems().stream().filter(x -> x.getProductId().equals(productId))
-        .forEach(item -> {
-          if (item.getUnitPrice().equals(oldPrice)) {
-            var originalPrice = item.getUnitPrice();
-            item.setUnitPrice(newPrice);
-            item.setOldUnitPrice(originalPrice);
-          }
-        });
-    basketRepository.updateBasket(basket);
+    basketService.updatePrices(List.of(
+        new ProductPriceChange(event.getProductId(), event.getNewPrice(), event.getOldPrice())
+    )).block();
   }
 }
@@ -0,0 +1,28 @@
+package com.eshop.basket.integrationevents.eventhandling;
+
+import com.eshop.basket.integrationevents.events.ProductPricesChangedIntegrationEvent;
+import com.eshop.basket.services.BasketService;
+import com.eshop.shared.eventhandling.IntegrationEventHandler;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+@RequiredArgsConstructor
+@Component
+public class ProductPricesChangedIntegrationEventHandler implements IntegrationEventHandler<ProductPricesChangedIntegrationEvent> {
+  private static final Logger logger = LoggerFactory.getLogger(ProductPricesChangedIntegrationEventHandler.class);
+
+  private final BasketService basketService;
+
+  @KafkaListener(groupId = "product-price-change-batches-group", topics = "${spring.kafka.consumer.topic.productPriceChangeBatches}")
+  @Override
+  public void handle(ProductPricesChangedIntegrationEvent event) {
+    logger.info("Handling integration event: {} ({}) with {} price changes",
+        event.getId(), event.getClass().getSimpleName(), event.getPriceChanges().size());
+
+    var updatedBaskets = basketService.updatePrices(event.getPriceChanges()).block();
+    logger.info("Updated prices in {} baskets", updatedBaskets);
+  }
+}
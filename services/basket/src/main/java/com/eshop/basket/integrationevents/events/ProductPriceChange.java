@@ -0,0 +1,14 @@
+package com.eshop.basket.integrationevents.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+public class ProductPriceChange {
+  private Long productId;
+  private Double newPrice;
+  private Double oldPrice;
+}
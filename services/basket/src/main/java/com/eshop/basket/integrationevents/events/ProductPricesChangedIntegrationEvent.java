@@ -0,0 +1,16 @@
+package com.eshop.basket.integrationevents.events;
+
+import com.eshop.shared.eventhandling.IntegrationEvent;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Price changes of several products, each product at most once.
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+public class ProductPricesChangedIntegrationEvent extends IntegrationEvent {
+  private List<ProductPriceChange> priceChanges;
+}
@@ -1,5 +1,6 @@
 package com.eshop.basket.model;
 
+import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -11,7 +12,11 @@ import java.io.Serializable;
 
 @Getter
 @NoArgsConstructor
+@AllArgsConstructor
 public class BasketItem implements Serializable {
+  // Computed value of the first version, baskets in the legacy hash were serialized with it
+  private static final long serialVersionUID = 657541220616180824L;
+
   @Setter
   private String id;
   @NotNull(message = "Product id is required")
@@ -0,0 +1,13 @@
+package com.eshop.basket.model;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+
+/**
+ * New number of units of a basket item. An item with no units is removed.
+ */
+public record BasketItemQuantity(
+    @NotEmpty(message = "Basket item id is required") String basketItemId,
+    @NotNull(message = "Quantity is required") Integer newQuantity
+) {
+}
@@ -0,0 +1,7 @@
+package com.eshop.basket.model;
+
+/**
+ * Price change of a product, applied to the basket items that still have its old price.
+ */
+public record BasketPriceChange(Long productId, Double oldPrice, Double newPrice) {
+}
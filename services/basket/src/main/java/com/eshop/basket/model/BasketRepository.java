@@ -1,14 +1,38 @@
 package com.eshop.basket.model;
 
-import java.util.Optional;
-import java.util.Set;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.Map;
 
 public interface BasketRepository {
-  Optional<CustomerBasket> getBasket(String customerId);
+  Mono<CustomerBasket> getBasket(String customerId);
+
+  Mono<CustomerBasket> updateBasket(CustomerBasket basket);
+
+  /**
+   * Adds the units of given item to the basket item of the same product, or adds the item if there is none.
+   * The basket is created if needed.
+   *
+   * @return the updated basket
+   */
+  Mono<CustomerBasket> addItem(String customerId, BasketItem item);
+
+  /**
+   * Sets the units of basket items by item id. Items set to no units are removed.
+   *
+   * @return the updated basket, empty if it does not exist
+   */
+  Mono<CustomerBasket> updateQuantities(String customerId, Map<String, Integer> quantities);
 
-  Set<String> getUsers();
+  /**
+   * Changes the price of the items of given products in all baskets, where they still have the old price.
+   *
+   * @return number of baskets changed
+   */
+  Mono<Integer> updatePrices(Collection<BasketPriceChange> priceChanges);
 
-  CustomerBasket updateBasket(CustomerBasket basket);
+  Mono<Void> changeStatus(String customerId, BasketStatus status);
 
-  void deleteBasket(String customerId);
+  Mono<Void> deleteBasket(String customerId);
 }
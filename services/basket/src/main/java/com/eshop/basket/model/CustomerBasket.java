@@ -12,6 +12,9 @@ import java.util.List;
 @Getter
 @NoArgsConstructor
 public class CustomerBasket implements Serializable {
+  // Computed value of the first version, baskets in the legacy hash were serialized with it
+  private static final long serialVersionUID = -4071056629443879411L;
+
   @NotEmpty(message = "Buyer id is required")
   private String buyerId;
   private BasketStatus status = BasketStatus.New;
@@ -1,15 +1,34 @@
 package com.eshop.basket.services;
 
+import com.eshop.basket.integrationevents.events.ProductPriceChange;
 import com.eshop.basket.model.BasketCheckout;
+import com.eshop.basket.model.BasketItem;
+import com.eshop.basket.model.BasketItemQuantity;
 import com.eshop.basket.model.CustomerBasket;
+import reactor.core.publisher.Mono;
 
+import java.util.Collection;
+import java.util.List;
 
 public interface BasketService {
-  CustomerBasket getBasketById(String customerId);
+  Mono<CustomerBasket> getBasketById(String customerId);
 
-  CustomerBasket updateBasket(CustomerBasket basket);
+  Mono<CustomerBasket> updateBasket(CustomerBasket basket);
 
-  void checkout(BasketCheckout basketCheckout);
+  Mono<CustomerBasket> addItem(String customerId, BasketItem item);
 
-  void deleteBasketForCustomer(String customerId);
+  Mono<CustomerBasket> updateQuantities(String customerId, List<BasketItemQuantity> quantities);
+
+  Mono<CustomerBasket> removeItem(String customerId, String itemId);
+
+  Mono<Void> checkout(BasketCheckout basketCheckout);
+
+  Mono<Void> deleteBasketForCustomer(String customerId);
+
+  /**
+   * Applies the price changes to the items of the baskets that contain the changed products.
+   *
+   * @return number of updated baskets
+   */
+  Mono<Integer> updatePrices(Collection<ProductPriceChange> priceChanges);
 }
@@ -1,8 +1,12 @@
 package com.eshop.basket.services;
 
 import com.eshop.basket.controller.BasketController;
+import com.eshop.basket.integrationevents.events.ProductPriceChange;
 import com.eshop.basket.integrationevents.events.UserCheckoutAcceptedIntegrationEvent;
 import com.eshop.basket.model.BasketCheckout;
+import com.eshop.basket.model.BasketItem;
+import com.eshop.basket.model.BasketItemQuantity;
+import com.eshop.basket.model.BasketPriceChange;
 import com.eshop.basket.model.BasketRepository;
 import com.eshop.basket.model.BasketStatus;
 import com.eshop.basket.model.CustomerBasket;
@@ -12,7 +16,13 @@ import lombok.AllArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @AllArgsConstructor
 @Service
@@ -24,21 +34,41 @@ public class BasketServiceImpl implements BasketService {
   private final EventBus orderCheckoutsEventBus;
 
   @Override
-  public CustomerBasket getBasketById(String customerId) {
+  public Mono<CustomerBasket> getBasketById(String customerId) {
     return getCustomerBasket(customerId);
   }
 
   @Override
-  public CustomerBasket updateBasket(CustomerBasket basket) {
+  public Mono<CustomerBasket> updateBasket(CustomerBasket basket) {
     return basketRepository.updateBasket(basket);
   }
 
-  @Transactional
   @Override
-  public void checkout(BasketCheckout basketCheckout) {
-    var userName = identityService.getUserName();
-    var basket = getCustomerBasket(userName);
+  public Mono<CustomerBasket> addItem(String customerId, BasketItem item) {
+    return basketRepository.addItem(customerId, item);
+  }
 
+  @Override
+  public Mono<CustomerBasket> updateQuantities(String customerId, List<BasketItemQuantity> quantities) {
+    var quantitiesByItemId = quantities.stream()
+        .collect(Collectors.toMap(BasketItemQuantity::basketItemId, BasketItemQuantity::newQuantity, (first, last) -> last));
+    return basketRepository.updateQuantities(customerId, quantitiesByItemId)
+        .switchIfEmpty(Mono.error(() -> new NotFoundException("Basket is not found for user %s".formatted(customerId))));
+  }
+
+  @Override
+  public Mono<CustomerBasket> removeItem(String customerId, String itemId) {
+    return basketRepository.updateQuantities(customerId, Map.of(itemId, 0))
+        .switchIfEmpty(Mono.error(() -> new NotFoundException("Basket is not found for user %s".formatted(customerId))));
+  }
+
+  @Override
+  public Mono<Void> checkout(BasketCheckout basketCheckout) {
+    return identityService.getUserName()
+        .flatMap(userName -> getCustomerBasket(userName).flatMap(basket -> checkout(userName, basket, basketCheckout)));
+  }
+
+  private Mono<Void> checkout(String userName, CustomerBasket basket, BasketCheckout basketCheckout) {
     logger.info("Checking out the basket for user: {} - request id: {}", userName, basketCheckout.getRequestId());
 
     var event = new UserCheckoutAcceptedIntegrationEvent(
@@ -60,20 +90,30 @@ public class BasketServiceImpl implements BasketService {
     );
 
     basket.changeStatusTo(BasketStatus.Checkout);
-    basketRepository.updateBasket(basket);
+    // Sends an integration event to order-processor to convert basket to order and proceeds with order creation
+    // process. Publishing waits for the broker, so it runs off the event loop. The stored basket is marked as
+    // checkout only once the event has been published, so a failed publish leaves it open.
+    return Mono.<Void>fromRunnable(() -> orderCheckoutsEventBus.publish(event))
+        .subscribeOn(Schedulers.boundedElastic())
+        .then(basketRepository.changeStatus(userName, BasketStatus.Checkout));
+  }
 
-    // Once basket is checkout, sends an integration event to order-processor to convert basket to order and proceeds
-    // with order creation process.
-    orderCheckoutsEventBus.publish(event);
+  @Override
+  public Mono<Void> deleteBasketForCustomer(String customerId) {
+    return basketRepository.deleteBasket(customerId);
   }
 
   @Override
-  public void deleteBasketForCustomer(String customerId) {
-    basketRepository.deleteBasket(customerId);
+  public Mono<Integer> updatePrices(Collection<ProductPriceChange> priceChanges) {
+    return basketRepository.updatePrices(priceChanges.stream()
+        .map(priceChange -> new BasketPriceChange(
+            priceChange.getProductId(), priceChange.getOldPrice(), priceChange.getNewPrice()
+        ))
+        .collect(Collectors.toList()));
   }
 
-  private CustomerBasket getCustomerBasket(String customerId) {
+  private Mono<CustomerBasket> getCustomerBasket(String customerId) {
     return basketRepository.getBasket(customerId)
-        .orElseThrow(() -> new NotFoundException("Basket is not found for user %s".formatted(customerId)));
+        .switchIfEmpty(Mono.error(() -> new NotFoundException("Basket is not found for user %s".formatted(customerId))));
   }
 }
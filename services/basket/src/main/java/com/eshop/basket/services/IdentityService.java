@@ -1,6 +1,8 @@
 package com.eshop.basket.services;
 
+import reactor.core.publisher.Mono;
+
 public interface IdentityService {
-  String getUserIdentity();
-  String getUserName();
+  Mono<String> getUserIdentity();
+  Mono<String> getUserName();
 }
@@ -1,10 +1,10 @@
 package com.eshop.basket.services;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
 
 @Service
 public class IdentityServiceImpl implements IdentityService {
@@ -12,13 +12,15 @@ public class IdentityServiceImpl implements IdentityService {
   private String userNameAttribute;
 
   @Override
-  public String getUserIdentity() {
-    return SecurityContextHolder.getContext().getAuthentication().getName();
+  public Mono<String> getUserIdentity() {
+    return ReactiveSecurityContextHolder.getContext()
+        .map(context -> context.getAuthentication().getName());
   }
 
   @Override
-  public String getUserName() {
-    var token = (Jwt) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-    return token.getClaims().get(userNameAttribute).toString();
+  public Mono<String> getUserName() {
+    return ReactiveSecurityContextHolder.getContext()
+        .map(context -> (Jwt) context.getAuthentication().getPrincipal())
+        .map(token -> token.getClaims().get(userNameAttribute).toString());
   }
 }
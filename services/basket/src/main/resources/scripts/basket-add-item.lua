@@ -0,0 +1,27 @@
+-- Adds units of a product to a basket. A new item is created when the basket does not contain the product yet.
+--
+-- KEYS[1] basket key
+-- ARGV[1] basket time to live, in seconds
+-- ARGV[2] product id
+-- ARGV[3] id of the new item
+-- ARGV[4] new item
+-- ARGV[5] units to add
+--
+-- Returns the id of the item the units have been added to.
+local basket = KEYS[1]
+local itemId = redis.call('HGET', basket, 'product:' .. ARGV[2])
+
+if not itemId then
+  itemId = ARGV[3]
+  redis.call('HSETNX', basket, 'status', 'New')
+  local position = redis.call('HINCRBY', basket, 'sequence', 1)
+  redis.call('HSET', basket,
+    'product:' .. ARGV[2], itemId,
+    'item:' .. itemId, ARGV[4],
+    'item-product:' .. itemId, ARGV[2],
+    'position:' .. itemId, position)
+end
+
+redis.call('HINCRBY', basket, 'quantity:' .. itemId, ARGV[5])
+redis.call('EXPIRE', basket, ARGV[1])
+return itemId
@@ -0,0 +1,8 @@
+-- Records when all products of a basket have been added to the product index, unless the basket no longer exists.
+--
+-- KEYS[1] basket key
+-- ARGV[1] time of the indexing, in epoch seconds
+if redis.call('EXISTS', KEYS[1]) == 1 then
+  redis.call('HSET', KEYS[1], 'indexed-at', ARGV[1])
+end
+return 0
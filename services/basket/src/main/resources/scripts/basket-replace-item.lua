@@ -0,0 +1,17 @@
+-- Replaces a basket item, unless it has changed since it was read. Units are kept apart from the item and are
+-- not affected.
+--
+-- KEYS[1] basket key
+-- ARGV[1] item id
+-- ARGV[2] item as read
+-- ARGV[3] new item
+--
+-- Returns 1 if the item has been replaced, 0 if it has changed or no longer exists.
+local field = 'item:' .. ARGV[1]
+
+if redis.call('HGET', KEYS[1], field) ~= ARGV[2] then
+  return 0
+end
+
+redis.call('HSET', KEYS[1], field, ARGV[3])
+return 1
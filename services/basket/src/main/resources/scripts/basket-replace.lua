@@ -0,0 +1,37 @@
+-- Replaces a whole basket.
+--
+-- KEYS[1] basket key
+-- ARGV[1] basket time to live, in seconds
+-- ARGV[2] '1' to keep the basket if it already exists
+-- ARGV[3], ARGV[4], ... name and value of every basket field
+--
+-- Returns the product ids that were in the basket and are not in the new one, none if the basket has been kept.
+local basket = KEYS[1]
+
+if ARGV[2] == '1' and redis.call('EXISTS', basket) == 1 then
+  return {}
+end
+
+local products = {}
+for i = 3, #ARGV, 2 do
+  local productId = string.match(ARGV[i], '^product:(.+)$')
+  if productId then
+    products[productId] = true
+  end
+end
+
+local removed = {}
+for _, field in ipairs(redis.call('HKEYS', basket)) do
+  local productId = string.match(field, '^product:(.+)$')
+  if productId and not products[productId] then
+    table.insert(removed, productId)
+  end
+end
+
+redis.call('DEL', basket)
+-- Field by field, unpacking all of them at once would exceed the Lua stack for large baskets
+for i = 3, #ARGV, 2 do
+  redis.call('HSET', basket, ARGV[i], ARGV[i + 1])
+end
+redis.call('EXPIRE', basket, ARGV[1])
+return removed
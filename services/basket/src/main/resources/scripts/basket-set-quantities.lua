@@ -0,0 +1,33 @@
+-- Sets the units of basket items. Items set to no units are removed, unknown items are ignored.
+--
+-- KEYS[1] basket key
+-- ARGV[1] basket time to live, in seconds
+-- ARGV[2], ARGV[3], ... id and units of every item
+--
+-- Returns the product ids of the removed items.
+local basket = KEYS[1]
+local removed = {}
+
+for i = 2, #ARGV, 2 do
+  local itemId = ARGV[i]
+  local productId = redis.call('HGET', basket, 'item-product:' .. itemId)
+
+  if productId then
+    if tonumber(ARGV[i + 1]) > 0 then
+      redis.call('HSET', basket, 'quantity:' .. itemId, ARGV[i + 1])
+    else
+      redis.call('HDEL', basket,
+        'product:' .. productId,
+        'item:' .. itemId,
+        'item-product:' .. itemId,
+        'position:' .. itemId,
+        'quantity:' .. itemId)
+      table.insert(removed, productId)
+    end
+  end
+end
+
+if redis.call('EXISTS', basket) == 1 then
+  redis.call('EXPIRE', basket, ARGV[1])
+end
+return removed
@@ -0,0 +1,112 @@
+package com.eshop.basket.infrastructure;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BasketItemSerializerTest {
+  private static final StoredBasketItem ITEM = new StoredBasketItem(
+      "item-1", 42L, ".NET Bot Black Hoodie", 19.5, 21.0, "http://localhost/api/v1/catalog/items/42/pic"
+  );
+
+  @ParameterizedTest
+  @EnumSource(BasketItemFormat.class)
+  void readsWhatItWrites(BasketItemFormat format) {
+    var serializer = new BasketItemSerializer(format, 0);
+
+    assertThat(serializer.deserialize(serializer.serialize(ITEM))).isEqualTo(ITEM);
+  }
+
+  @ParameterizedTest
+  @EnumSource(BasketItemFormat.class)
+  void keepsMissingFields(BasketItemFormat format) {
+    var serializer = new BasketItemSerializer(format, 0);
+    var item = new StoredBasketItem("item-1", 42L, null, 19.5, null, null);
+
+    assertThat(serializer.deserialize(serializer.serialize(item))).isEqualTo(item);
+  }
+
+  @Test
+  void writesCompactItemsWithTheirVersion() {
+    var bytes = new BasketItemSerializer(BasketItemFormat.Compact, 0).serialize(ITEM);
+
+    assertThat(bytes[0]).isEqualTo((byte) 1);
+  }
+
+  @Test
+  void compressesCompactItemsFromTheThreshold() {
+    var item = new StoredBasketItem("item-1", 42L, "Hoodie ".repeat(40), 19.5, null, "pic");
+    var serializer = new BasketItemSerializer(BasketItemFormat.Compact, 64);
+
+    var bytes = serializer.serialize(item);
+
+    assertThat(bytes[0]).isEqualTo((byte) 0x81);
+    assertThat(bytes.length).isLessThan(new BasketItemSerializer(BasketItemFormat.Compact, 0).serialize(item).length);
+    assertThat(serializer.deserialize(bytes)).isEqualTo(item);
+  }
+
+  @Test
+  void doesNotCompressItemsBelowTheThreshold() {
+    var bytes = new BasketItemSerializer(BasketItemFormat.Compact, 4096).serialize(ITEM);
+
+    assertThat(bytes[0]).isEqualTo((byte) 1);
+  }
+
+  @Test
+  void doesNotCompressItemsThatWouldNotShrink() {
+    var item = new StoredBasketItem("item-1", 42L, null, 19.5, null, null);
+    var serializer = new BasketItemSerializer(BasketItemFormat.Compact, 1);
+
+    var bytes = serializer.serialize(item);
+
+    assertThat(bytes[0]).isEqualTo((byte) 1);
+    assertThat(serializer.deserialize(bytes)).isEqualTo(item);
+  }
+
+  @Test
+  void writesJsonAsText() {
+    var bytes = new BasketItemSerializer(BasketItemFormat.Json, 0).serialize(ITEM);
+
+    assertThat(new String(bytes, StandardCharsets.UTF_8)).startsWith("{").contains("\"productId\":42");
+  }
+
+  @Test
+  void readsJsonWhenWritingCompact() {
+    var json = new BasketItemSerializer(BasketItemFormat.Json, 0).serialize(ITEM);
+
+    assertThat(new BasketItemSerializer(BasketItemFormat.Compact, 64).deserialize(json)).isEqualTo(ITEM);
+  }
+
+  @Test
+  void readsCompactWhenWritingJson() {
+    var compact = new BasketItemSerializer(BasketItemFormat.Compact, 0).serialize(ITEM);
+
+    assertThat(new BasketItemSerializer(BasketItemFormat.Json, 0).deserialize(compact)).isEqualTo(ITEM);
+  }
+
+  @Test
+  void rejectsUnsupportedVersions() {
+    var serializer = new BasketItemSerializer(BasketItemFormat.Compact, 0);
+    var bytes = serializer.serialize(ITEM);
+    bytes[0] = 2;
+
+    assertThatThrownBy(() -> serializer.deserialize(bytes))
+        .isInstanceOf(SerializationException.class)
+        .hasMessageContaining("version 2");
+  }
+
+  @Test
+  void writesNothingForMissingItems() {
+    var serializer = new BasketItemSerializer(BasketItemFormat.Compact, 0);
+
+    assertThat(serializer.serialize(null)).isNull();
+    assertThat(serializer.deserialize(null)).isNull();
+    assertThat(serializer.deserialize(new byte[0])).isNull();
+  }
+}
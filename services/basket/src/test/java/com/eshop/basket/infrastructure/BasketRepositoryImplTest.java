@@ -0,0 +1,211 @@
+package com.eshop.basket.infrastructure;
+
+import com.eshop.basket.config.RedisConfig;
+import com.eshop.basket.model.BasketItem;
+import com.eshop.basket.model.BasketPriceChange;
+import com.eshop.basket.model.CustomerBasket;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the basket scripts against a Redis server, through the repository that calls them.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class BasketRepositoryImplTest {
+  private static final String CUSTOMER_ID = "customer-1";
+
+  @Container
+  private static final GenericContainer<?> redis = new GenericContainer<>(DockerImageName.parse("redis:6.2-alpine"))
+      .withExposedPorts(6379);
+
+  private static LettuceConnectionFactory connectionFactory;
+
+  private ReactiveStringRedisTemplate redisTemplate;
+  private BasketRepositoryImpl basketRepository;
+
+  @BeforeAll
+  static void connect() {
+    connectionFactory = new LettuceConnectionFactory(redis.getHost(), redis.getMappedPort(6379));
+    connectionFactory.afterPropertiesSet();
+  }
+
+  @AfterAll
+  static void disconnect() {
+    connectionFactory.destroy();
+  }
+
+  @BeforeEach
+  void setUp() {
+    redisTemplate = new ReactiveStringRedisTemplate(connectionFactory);
+    redisTemplate.execute(connection -> connection.serverCommands().flushAll()).blockLast();
+
+    basketRepository = new BasketRepositoryImpl(
+        redisTemplate,
+        new RedisConfig().basketRedisTemplate(connectionFactory),
+        new BasketItemSerializer(BasketItemFormat.Compact, 512),
+        new LegacyBasketStorage(connectionFactory),
+        Optional.empty(),
+        Duration.ofDays(30)
+    );
+  }
+
+  @Test
+  void addsUnitsOfTheSameProductToOneItem() {
+    basketRepository.addItem(CUSTOMER_ID, item(1L, 10.0, 2)).block();
+
+    var basket = basketRepository.addItem(CUSTOMER_ID, item(1L, 10.0, 3)).block();
+
+    assertThat(basket.getItems()).singleElement()
+        .satisfies(item -> assertThat(item.getProductId()).isEqualTo(1L))
+        .satisfies(item -> assertThat(item.getQuantity()).isEqualTo(5));
+    assertThat(buyers(1L)).containsExactly(CUSTOMER_ID);
+  }
+
+  @Test
+  void keepsItemsInTheOrderTheyWereAdded() {
+    basketRepository.addItem(CUSTOMER_ID, item(3L, 10.0, 1)).block();
+    basketRepository.addItem(CUSTOMER_ID, item(1L, 10.0, 1)).block();
+    basketRepository.addItem(CUSTOMER_ID, item(2L, 10.0, 1)).block();
+
+    var basket = basketRepository.getBasket(CUSTOMER_ID).block();
+
+    assertThat(basket.getItems()).extracting(BasketItem::getProductId).containsExactly(3L, 1L, 2L);
+  }
+
+  @Test
+  void losesNoUnitsAddedConcurrently() {
+    Flux.range(0, 50)
+        .flatMap(i -> basketRepository.addItem(CUSTOMER_ID, item(1L + i % 5, 10.0, 1)))
+        .blockLast();
+
+    var basket = basketRepository.getBasket(CUSTOMER_ID).block();
+
+    assertThat(basket.getItems()).hasSize(5).allSatisfy(item -> assertThat(item.getQuantity()).isEqualTo(10));
+  }
+
+  @Test
+  void removesItemsSetToNoUnits() {
+    var removedItem = basketRepository.addItem(CUSTOMER_ID, item(1L, 10.0, 1)).block().getItems().get(0);
+    var keptItem = basketRepository.addItem(CUSTOMER_ID, item(2L, 10.0, 1)).block().getItems().get(1);
+
+    var basket = basketRepository.updateQuantities(CUSTOMER_ID, Map.of(
+        removedItem.getId(), 0,
+        keptItem.getId(), 4,
+        "unknown-item", 3
+    )).block();
+
+    assertThat(basket.getItems()).singleElement()
+        .satisfies(item -> assertThat(item.getProductId()).isEqualTo(2L))
+        .satisfies(item -> assertThat(item.getQuantity()).isEqualTo(4));
+    assertThat(buyers(1L)).isEmpty();
+    assertThat(buyers(2L)).containsExactly(CUSTOMER_ID);
+  }
+
+  @Test
+  void replacesWholeBaskets() {
+    basketRepository.updateBasket(basket(item(1L, 10.0, 1), item(2L, 10.0, 1))).block();
+
+    basketRepository.updateBasket(basket(item(2L, 10.0, 2), item(3L, 10.0, 3))).block();
+
+    var basket = basketRepository.getBasket(CUSTOMER_ID).block();
+    assertThat(basket.getItems()).extracting(BasketItem::getProductId).containsExactly(2L, 3L);
+    assertThat(basket.getItems()).extracting(BasketItem::getQuantity).containsExactly(2, 3);
+    assertThat(buyers(1L)).isEmpty();
+    assertThat(buyers(3L)).containsExactly(CUSTOMER_ID);
+  }
+
+  @Test
+  void mergesItemsOfTheSameProductWhenReplacing() {
+    basketRepository.updateBasket(basket(item(1L, 10.0, 1), item(2L, 10.0, 1), item(1L, 10.0, 2))).block();
+
+    var basket = basketRepository.getBasket(CUSTOMER_ID).block();
+
+    assertThat(basket.getItems()).extracting(BasketItem::getProductId).containsExactly(1L, 2L);
+    assertThat(basket.getItems()).extracting(BasketItem::getQuantity).containsExactly(3, 1);
+  }
+
+  @Test
+  void replacesLargeBaskets() {
+    var items = IntStream.rangeClosed(1, 5000)
+        .mapToObj(productId -> item((long) productId, 10.0, 1))
+        .toArray(BasketItem[]::new);
+
+    basketRepository.updateBasket(basket(items)).block();
+
+    assertThat(basketRepository.getBasket(CUSTOMER_ID).block().getItems()).hasSize(5000);
+  }
+
+  @Test
+  void changesPricesOfItemsThatHaveTheOldPrice() {
+    basketRepository.addItem(CUSTOMER_ID, item(1L, 10.0, 1)).block();
+    basketRepository.addItem("customer-2", item(1L, 12.0, 1)).block();
+
+    var changedBaskets = basketRepository.updatePrices(List.of(new BasketPriceChange(1L, 10.0, 11.0))).block();
+
+    assertThat(changedBaskets).isEqualTo(1);
+    assertThat(basketRepository.getBasket(CUSTOMER_ID).block().getItems()).singleElement()
+        .satisfies(item -> assertThat(item.getUnitPrice()).isEqualTo(11.0))
+        .satisfies(item -> assertThat(item.getOldUnitPrice()).isEqualTo(10.0));
+    assertThat(basketRepository.getBasket("customer-2").block().getItems()).singleElement()
+        .satisfies(item -> assertThat(item.getUnitPrice()).isEqualTo(12.0));
+  }
+
+  @Test
+  void movesLegacyBasketsWhenTheyAreRead() {
+    var legacyTemplate = new ReactiveRedisTemplate<Object, Object>(connectionFactory, RedisSerializationContext.java());
+    var legacyBasket = basket(item(1L, 10.0, 2));
+    legacyBasket.getItems().get(0).setId("legacy-item");
+    legacyTemplate.opsForHash().put("BASKET", CUSTOMER_ID, legacyBasket).block();
+
+    var basket = basketRepository.getBasket(CUSTOMER_ID).block();
+
+    assertThat(basket.getItems()).singleElement()
+        .satisfies(item -> assertThat(item.getId()).isEqualTo("legacy-item"))
+        .satisfies(item -> assertThat(item.getQuantity()).isEqualTo(2));
+    assertThat(redisTemplate.hasKey("basket:{" + CUSTOMER_ID + "}").block()).isTrue();
+    assertThat(buyers(1L)).containsExactly(CUSTOMER_ID);
+  }
+
+  @Test
+  void deletesBasketsAndTheirIndexEntries() {
+    basketRepository.addItem(CUSTOMER_ID, item(1L, 10.0, 1)).block();
+
+    basketRepository.deleteBasket(CUSTOMER_ID).block();
+
+    assertThat(basketRepository.getBasket(CUSTOMER_ID).blockOptional()).isEmpty();
+    assertThat(buyers(1L)).isEmpty();
+  }
+
+  private List<String> buyers(Long productId) {
+    return redisTemplate.opsForSet().members("BASKET_PRODUCT:" + productId).collectList().block();
+  }
+
+  private CustomerBasket basket(BasketItem... items) {
+    var basket = new CustomerBasket(CUSTOMER_ID);
+    basket.getItems().addAll(List.of(items));
+    return basket;
+  }
+
+  private BasketItem item(Long productId, Double unitPrice, int quantity) {
+    return new BasketItem(null, productId, "Product " + productId, unitPrice, null, quantity, "picture-" + productId);
+  }
+}
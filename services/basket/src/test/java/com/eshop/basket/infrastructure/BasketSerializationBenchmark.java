@@ -0,0 +1,122 @@
+package com.eshop.basket.infrastructure;
+
+import com.eshop.basket.model.BasketItem;
+import com.eshop.basket.model.CustomerBasket;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Compares writing and reading a basket as item fields, in the compact format with and without LZ4 and in JSON,
+ * with the JDK serialization of the whole basket used by the legacy storage. Run with <code>-prof gc</code> to
+ * compare allocations too.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BasketSerializationBenchmark {
+  @Param({"1", "10", "50"})
+  private int itemCount;
+
+  private final BasketItemSerializer compactSerializer = new BasketItemSerializer(BasketItemFormat.Compact, 0);
+  // Low enough for every item to go through LZ4, the ones that would not shrink are still stored uncompressed
+  private final BasketItemSerializer compressingSerializer = new BasketItemSerializer(BasketItemFormat.Compact, 64);
+  private final BasketItemSerializer jsonSerializer = new BasketItemSerializer(BasketItemFormat.Json, 0);
+  private final JdkSerializationRedisSerializer jdkSerializer = new JdkSerializationRedisSerializer();
+
+  private List<StoredBasketItem> items;
+  private CustomerBasket basket;
+  private List<byte[]> compactItems;
+  private List<byte[]> compressedItems;
+  private List<byte[]> jsonItems;
+  private byte[] jdkBasket;
+
+  @Setup
+  public void setUp() {
+    items = IntStream.range(0, itemCount)
+        .mapToObj(i -> new StoredBasketItem(
+            "item-" + i, 100L + i, "Product " + i, 19.5 + i, null, "http://localhost/api/v1/catalog/items/" + i + "/pic"
+        ))
+        .collect(Collectors.toList());
+    basket = new CustomerBasket("customer-1");
+    items.forEach(item -> basket.getItems().add(new BasketItem(
+        item.id(), item.productId(), item.productName(), item.unitPrice(), item.oldUnitPrice(), 1, item.pictureUrl()
+    )));
+
+    compactItems = write(compactSerializer);
+    compressedItems = write(compressingSerializer);
+    jsonItems = write(jsonSerializer);
+    jdkBasket = jdkSerializer.serialize(basket);
+  }
+
+  @Benchmark
+  public List<byte[]> writeCompact() {
+    return write(compactSerializer);
+  }
+
+  @Benchmark
+  public List<byte[]> writeCompressed() {
+    return write(compressingSerializer);
+  }
+
+  @Benchmark
+  public List<byte[]> writeJson() {
+    return write(jsonSerializer);
+  }
+
+  @Benchmark
+  public byte[] writeJdk() {
+    return jdkSerializer.serialize(basket);
+  }
+
+  @Benchmark
+  public List<StoredBasketItem> readCompact() {
+    return read(compactSerializer, compactItems);
+  }
+
+  @Benchmark
+  public List<StoredBasketItem> readCompressed() {
+    return read(compressingSerializer, compressedItems);
+  }
+
+  @Benchmark
+  public List<StoredBasketItem> readJson() {
+    return read(jsonSerializer, jsonItems);
+  }
+
+  @Benchmark
+  public Object readJdk() {
+    return jdkSerializer.deserialize(jdkBasket);
+  }
+
+  private List<byte[]> write(BasketItemSerializer serializer) {
+    var bytes = new ArrayList<byte[]>(items.size());
+    for (var item : items) {
+      bytes.add(serializer.serialize(item));
+    }
+    return bytes;
+  }
+
+  private List<StoredBasketItem> read(BasketItemSerializer serializer, List<byte[]> bytes) {
+    var readItems = new ArrayList<StoredBasketItem>(bytes.size());
+    for (var item : bytes) {
+      readItems.add(serializer.deserialize(item));
+    }
+    return readItems;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(BasketSerializationBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -0,0 +1,36 @@
+package com.eshop.catalog.config;
+
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
+@Configuration
+public class CacheConfig {
+  public static final String CATALOG_ITEMS = "catalogItems";
+  public static final String CATALOG_BRANDS = "catalogBrands";
+  public static final String CATALOG_CATEGORIES = "catalogCategories";
+
+  /**
+   * Cache puts and evictions made inside a transaction are applied after it commits, so that a concurrent read
+   * cannot cache an entry that is about to change.
+   */
+  @Bean
+  public CacheManager cacheManager(CacheProperties cacheProperties) {
+    var cacheManager = new CaffeineCacheManager();
+    if (cacheProperties.getCaffeine().getSpec() != null) {
+      cacheManager.setCacheSpecification(cacheProperties.getCaffeine().getSpec());
+    }
+    if (!cacheProperties.getCacheNames().isEmpty()) {
+      cacheManager.setCacheNames(cacheProperties.getCacheNames());
+    }
+    cacheManager.setAllowNullValues(false);
+    return new TransactionAwareCacheManagerProxy(cacheManager);
+  }
+}
@@ -0,0 +1,25 @@
+package com.eshop.catalog.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class CatalogImportConfig {
+  public static final String CATALOG_IMPORT_EXECUTOR = "catalogImportExecutor";
+
+  /**
+   * Runs imports one at a time. On shutdown the running import is interrupted and queued ones are dropped, as
+   * their feeds are only stored on this instance.
+   */
+  @Bean(CATALOG_IMPORT_EXECUTOR)
+  public ThreadPoolTaskExecutor catalogImportExecutor() {
+    var executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(1);
+    executor.setMaxPoolSize(1);
+    executor.setThreadNamePrefix("catalog-import-");
+    executor.setWaitForTasksToCompleteOnShutdown(false);
+    executor.setAwaitTerminationSeconds(10);
+    return executor;
+  }
+}
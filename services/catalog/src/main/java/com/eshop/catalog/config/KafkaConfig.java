@@ -1,24 +1,31 @@
 package com.eshop.catalog.config;
 
 import com.eshop.shared.eventhandling.IntegrationEvent;
+import com.eshop.shared.eventhandling.codec.IntegrationEventFormat;
+import com.eshop.shared.eventhandling.kafka.IntegrationEventBatchMessageConverter;
+import com.eshop.shared.eventhandling.kafka.IntegrationEventMessageConverter;
+import com.eshop.shared.eventhandling.kafka.IntegrationEventSerializer;
 import lombok.RequiredArgsConstructor;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
 import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaOperations;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.RecoveringBatchErrorHandler;
 import org.springframework.kafka.listener.SeekToCurrentErrorHandler;
 import org.springframework.kafka.support.converter.RecordMessageConverter;
-import org.springframework.kafka.support.converter.StringJsonMessageConverter;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
-import org.springframework.kafka.support.serializer.JsonSerializer;
 import org.springframework.util.backoff.FixedBackOff;
 
 import java.util.HashMap;
@@ -27,10 +34,14 @@ import java.util.Map;
 @RequiredArgsConstructor
 @Configuration
 public class KafkaConfig {
+  public static final String BATCH_LISTENER_CONTAINER_FACTORY = "batchKafkaListenerContainerFactory";
 
   private final KafkaProperties kafkaProperties;
   private final KafkaTopics topics;
 
+  @Value("${app.kafka.event-format}")
+  private IntegrationEventFormat eventFormat;
+
   // Producer
   @Bean
   public SeekToCurrentErrorHandler errorHandler(
@@ -55,7 +66,8 @@ public class KafkaConfig {
   public Map<String, Object> producerConfigs() {
     var props = new HashMap<>(kafkaProperties.buildProducerProperties());
     props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-    props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+    props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, IntegrationEventSerializer.class);
+    props.put(IntegrationEventSerializer.FORMAT_CONFIG, eventFormat);
     return props;
   }
 
@@ -72,7 +84,29 @@ public class KafkaConfig {
   // Consumer
   @Bean
   public RecordMessageConverter converter() {
-    return new StringJsonMessageConverter();
+    return new IntegrationEventMessageConverter();
+  }
+
+  /**
+   * Container factory for listeners that receive all records of a poll as a list. Listeners must throw
+   * {@link org.springframework.kafka.listener.BatchListenerFailedException} with the index of the failing record,
+   * so that only that record is retried and recovered, otherwise the whole batch is retried without end.
+   */
+  @Bean(BATCH_LISTENER_CONTAINER_FACTORY)
+  public ConcurrentKafkaListenerContainerFactory<Object, Object> batchKafkaListenerContainerFactory(
+      ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+      ConsumerFactory<Object, Object> consumerFactory,
+      DeadLetterPublishingRecoverer deadLetterPublishingRecoverer
+  ) {
+    var factory = new ConcurrentKafkaListenerContainerFactory<Object, Object>();
+    configurer.configure(factory, consumerFactory);
+    factory.setBatchListener(true);
+    factory.setMessageConverter(new IntegrationEventBatchMessageConverter());
+    factory.setBatchErrorHandler(new RecoveringBatchErrorHandler(
+        deadLetterPublishingRecoverer,
+        new FixedBackOff(1000L, 2)
+    ));
+    return factory;
   }
 
   // Topics
@@ -91,6 +125,11 @@ public class KafkaConfig {
     return new NewTopic(topics.getProductPriceChanges(), 1, (short) 1);
   }
 
+  @Bean
+  public NewTopic productPriceChangeBatchesTopic() {
+    return new NewTopic(topics.getProductPriceChangeBatches(), 1, (short) 1);
+  }
+
   @Bean
   public NewTopic orderStockConfirmedTopic() {
     return new NewTopic(topics.getOrderStockConfirmed(), 1, (short) 1);
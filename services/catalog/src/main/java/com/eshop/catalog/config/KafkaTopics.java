@@ -15,4 +15,5 @@ public class KafkaTopics {
   private String orderStockConfirmed;
   private String orderStockRejected;
   private String productPriceChanges;
+  private String productPriceChangeBatches;
 }
@@ -31,6 +31,7 @@ public class SecurityConfig {
     http
         .mvcMatcher("/catalog/**")
         .authorizeRequests()
+        .mvcMatchers("/catalog/imports/**").hasRole(EshopRole.Admin)
         .mvcMatchers(HttpMethod.GET, "/catalog/*").permitAll()
         .mvcMatchers(HttpMethod.POST, "/catalog/*").hasRole(EshopRole.Admin)
         .mvcMatchers(HttpMethod.PUT, "/catalog/*").hasRole(EshopRole.Admin)
@@ -2,6 +2,7 @@ package com.eshop.catalog.controller;
 
 import com.eshop.catalog.model.Brand;
 import com.eshop.catalog.model.CatalogItem;
+import com.eshop.catalog.model.CatalogItemView;
 import com.eshop.catalog.model.Category;
 import com.eshop.catalog.services.CatalogService;
 import com.eshop.shared.rest.error.BadRequestException;
@@ -10,6 +11,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -19,6 +21,7 @@ import java.util.Arrays;
 import java.util.stream.Collectors;
 
 import static java.util.Objects.nonNull;
+import static org.apache.commons.lang3.StringUtils.isBlank;
 import static org.apache.commons.lang3.StringUtils.isEmpty;
 
 /**
@@ -39,7 +42,7 @@ public class CatalogController {
      * @return catalog items
      */
     @RequestMapping("items/withids/{ids}")
-    public Iterable<CatalogItem> catalogItemsByIds(@PathVariable String ids) {
+    public Iterable<CatalogItemView> catalogItemsByIds(@PathVariable String ids) {
         if (isEmpty(ids)) {
             throw new BadRequestException("Invalid ids value");
         }
@@ -61,7 +64,7 @@ public class CatalogController {
      * @return catalog items
      */
     @RequestMapping("items")
-    public Page<CatalogItem> catalogItems(
+    public Page<CatalogItemView> catalogItems(
             @RequestParam(defaultValue = "10", required = false) Integer pageSize,
             @RequestParam(defaultValue = "0", required = false) Integer pageIndex,
             @RequestParam(required = false) Long brandId,
@@ -74,6 +77,33 @@ public class CatalogController {
         return catalogService.getItems(brand, type, PageRequest.of(pageIndex, pageSize));
     }
 
+    /**
+     * Returns catalog items that belong to given brand and type, newest first, starting after given item.
+     * Unlike the paged listing, no total is counted and deep positions cost the same as the first one.
+     *
+     * @param pageSize number of items
+     * @param afterId  id of the last item already returned, if any
+     * @param brandId  item brand
+     * @param typeId   item type
+     * @return catalog items
+     */
+    @RequestMapping("items/seek")
+    public Slice<CatalogItemView> catalogItemsAfter(
+            @RequestParam(defaultValue = "10", required = false) Integer pageSize,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(required = false) Long brandId,
+            @RequestParam(required = false) Long typeId
+    ) {
+        logger.info("Find catalog items - page size: {}, after: {}, brand: {}, type: {}", pageSize, afterId, brandId, typeId);
+        if (pageSize < 1) {
+            throw new BadRequestException("Page size must be greater than zero");
+        }
+        final var brand = findBrand(brandId);
+        final var type = findCategory(typeId);
+
+        return catalogService.getItemsAfter(brand, type, afterId, pageSize);
+    }
+
     /**
      * Returns catalog item by given id.
      *
@@ -81,29 +111,29 @@ public class CatalogController {
      * @return catalog item
      */
     @RequestMapping("items/{id}")
-    public ResponseEntity<CatalogItem> catalogItem(@PathVariable Long id) {
+    public ResponseEntity<CatalogItemView> catalogItem(@PathVariable Long id) {
         logger.info("Find catalog item: {}", id);
         return ResponseEntity.of(catalogService.getItemById(id));
     }
 
     /**
-     * Returns catalog items by given name in give page.
+     * Returns catalog items whose name, description, brand or type match given name, best matches first.
      *
      * @param pageSize  number of items to be returned
      * @param pageIndex page
-     * @param name      name of item
+     * @param name      searched name, partial and misspelled words match as well
      * @return catalog items
      */
     @RequestMapping("items/withname/{name}")
-    public Page<CatalogItem> catalogItems(
+    public Page<CatalogItemView> catalogItems(
             @RequestParam(defaultValue = "10", required = false) Integer pageSize,
             @RequestParam(defaultValue = "0", required = false) Integer pageIndex,
             @PathVariable String name
     ) {
-        if (isEmpty(name)) {
+        if (isBlank(name)) {
             throw new BadRequestException("The name must be at least one character long");
         }
-        return catalogService.getItems(name, PageRequest.of(pageIndex, pageSize));
+        return catalogService.searchItems(name, PageRequest.of(pageIndex, pageSize));
     }
 
     /**
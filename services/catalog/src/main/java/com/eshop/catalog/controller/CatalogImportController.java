@@ -0,0 +1,70 @@
+package com.eshop.catalog.controller;
+
+import com.eshop.catalog.model.CatalogImport;
+import com.eshop.catalog.model.CatalogImportFormat;
+import com.eshop.catalog.services.CatalogImportService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.net.URI;
+import java.util.UUID;
+
+/**
+ * Handle bulk imports of catalog feeds.
+ */
+@RequestMapping("catalog/imports")
+@RestController
+@RequiredArgsConstructor
+public class CatalogImportController {
+    private static final Logger logger = LoggerFactory.getLogger(CatalogImportController.class);
+
+    private final CatalogImportService catalogImportService;
+
+    /**
+     * Starts the import of a CSV feed with a header line. The request body is streamed, not parsed in memory.
+     *
+     * @param request request with the feed as its body
+     * @return the pending import
+     */
+    @RequestMapping(method = RequestMethod.POST, consumes = "text/csv")
+    public ResponseEntity<CatalogImport> importCsv(HttpServletRequest request) throws IOException {
+        return startImport(request, CatalogImportFormat.CSV);
+    }
+
+    /**
+     * Starts the import of a JSON feed, either an array of items or a stream of items.
+     *
+     * @param request request with the feed as its body
+     * @return the pending import
+     */
+    @RequestMapping(method = RequestMethod.POST, consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<CatalogImport> importJson(HttpServletRequest request) throws IOException {
+        return startImport(request, CatalogImportFormat.JSON);
+    }
+
+    /**
+     * Returns the state and progress of given import.
+     *
+     * @param id import id
+     * @return catalog import
+     */
+    @RequestMapping(method = RequestMethod.GET, path = "{id}")
+    public ResponseEntity<CatalogImport> catalogImport(@PathVariable UUID id) {
+        return ResponseEntity.of(catalogImportService.getImport(id));
+    }
+
+    private ResponseEntity<CatalogImport> startImport(HttpServletRequest request, CatalogImportFormat format) throws IOException {
+        logger.info("Import {} catalog feed ({} bytes)", format, request.getContentLengthLong());
+        final var catalogImport = catalogImportService.startImport(request.getInputStream(), format);
+        return ResponseEntity
+                .accepted()
+                .location(URI.create("/catalog/imports/" + catalogImport.getId()))
+                .body(catalogImport);
+    }
+}
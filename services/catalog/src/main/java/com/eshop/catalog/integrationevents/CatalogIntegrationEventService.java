@@ -7,6 +7,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @RequiredArgsConstructor
 @Service
 public class CatalogIntegrationEventService implements IntegrationEventService {
@@ -20,4 +22,10 @@ public class CatalogIntegrationEventService implements IntegrationEventService {
     eventLogService.saveEvent(event, topic);
   }
 
+  @Override
+  public void saveEventsAndCatalogContextChanges(String topic, List<? extends IntegrationEvent> events) {
+    logger.info("Saving changes and {} integration events", events.size());
+    eventLogService.saveEvents(events, topic);
+  }
+
 }
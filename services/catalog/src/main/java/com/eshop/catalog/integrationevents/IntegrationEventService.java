@@ -2,6 +2,10 @@ package com.eshop.catalog.integrationevents;
 
 import com.eshop.shared.eventhandling.IntegrationEvent;
 
+import java.util.List;
+
 public interface IntegrationEventService {
   void saveEventAndCatalogContextChanges(String topic, IntegrationEvent event);
+
+  void saveEventsAndCatalogContextChanges(String topic, List<? extends IntegrationEvent> events);
 }
@@ -1,26 +1,40 @@
 package com.eshop.catalog.integrationevents.eventhandling;
 
+import com.eshop.catalog.config.KafkaConfig;
 import com.eshop.catalog.integrationevents.IntegrationEventService;
 import com.eshop.catalog.integrationevents.events.*;
-import com.eshop.catalog.model.CatalogItem;
-import com.eshop.catalog.model.CatalogItemRepository;
+import com.eshop.catalog.services.StockReservationService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.stream.Collectors;
 
+/**
+ * Validates the stock of orders waiting for validation by reserving it. All orders of a poll are received together
+ * and validated in one transaction, with a handful of queries whatever the number of orders, together with saving
+ * their confirmations and rejections.
+ * <p>
+ * When the batch fails, its orders are validated again one by one, each in its own transaction. The orders before
+ * the failing one stay committed and the failing one is retried and then sent to the dead letter topic by the
+ * batch error handler.
+ */
 @RequiredArgsConstructor
 @Component
 public class OrderStatusChangedToAwaitingValidationIntegrationEventHandler {
   private static final Logger logger = LoggerFactory.getLogger(OrderStatusChangedToAwaitingValidationIntegrationEventHandler.class);
 
-  private final CatalogItemRepository catalogItemRepository;
+  private final StockReservationService stockReservationService;
   private final IntegrationEventService integrationEventService;
+  private final TransactionTemplate transactionTemplate;
   @Value("${spring.kafka.consumer.topic.orderStockConfirmed}")
   private String orderStockConfirmedTopic;
   @Value("${spring.kafka.consumer.topic.orderStockRejected}")
@@ -28,36 +42,58 @@ public class OrderStatusChangedToAwaitingValidationIntegrationEventHandler {
 
   @KafkaListener(
       groupId = "orders-waiting-validation-group",
-      topics = "${spring.kafka.consumer.topic.ordersWaitingForValidation}"
+      topics = "${spring.kafka.consumer.topic.ordersWaitingForValidation}",
+      containerFactory = KafkaConfig.BATCH_LISTENER_CONTAINER_FACTORY
   )
-  public void handle(OrderStatusChangedToAwaitingValidationIntegrationEvent event) {
-    logger.info("Handling integration event: {} ({})", event.getId(), event.getClass().getSimpleName());
-    var confirmedOrderStockItems = new ArrayList<ConfirmedOrderStockItem>();
+  public void handle(List<OrderStatusChangedToAwaitingValidationIntegrationEvent> events) {
+    logger.info("Handling {} integration events ({})",
+        events.size(), OrderStatusChangedToAwaitingValidationIntegrationEvent.class.getSimpleName());
 
-    event.getOrderStockItems().forEach(orderStockItem -> catalogItemRepository
-        .findById(orderStockItem.getProductId())
-        .ifPresent(catalogItem ->
-            confirmedOrderStockItems.add(createConfirmedOrderStockItem(catalogItem, orderStockItem)))
-    );
-
-    if (allItemsAvailable(confirmedOrderStockItems)) {
-      integrationEventService.saveEventAndCatalogContextChanges(
-          orderStockConfirmedTopic,
-          new OrderStockConfirmedIntegrationEvent(event.getOrderId())
-      );
-    } else {
-      integrationEventService.saveEventAndCatalogContextChanges(orderStockRejectedTopic,
-          new OrderStockRejectedIntegrationEvent(event.getOrderId(), confirmedOrderStockItems));
+    try {
+      transactionTemplate.executeWithoutResult(status -> validate(events));
+      return;
+    } catch (RuntimeException e) {
+      logger.warn("Stock validation of {} orders failed, validating them one by one", events.size(), e);
     }
 
+    for (var i = 0; i < events.size(); i++) {
+      var event = events.get(i);
+      try {
+        transactionTemplate.executeWithoutResult(status -> validate(List.of(event)));
+      } catch (RuntimeException e) {
+        throw new BatchListenerFailedException("Stock validation of order " + event.getOrderId() + " failed", e, i);
+      }
+    }
   }
 
-  private ConfirmedOrderStockItem createConfirmedOrderStockItem(CatalogItem catalogItem, OrderStockItem orderStockItem) {
-    return new ConfirmedOrderStockItem(catalogItem.getId(), hasStock(catalogItem, orderStockItem));
-  }
+  private void validate(List<OrderStatusChangedToAwaitingValidationIntegrationEvent> events) {
+    events.forEach(event -> logger.info("Validating stock of order: {} ({})", event.getOrderId(), event.getId()));
+
+    // A redelivered order is validated once, it is confirmed again if its stock has been reserved
+    var orderStockItems = events.stream()
+        .collect(Collectors.toMap(
+            OrderStatusChangedToAwaitingValidationIntegrationEvent::getOrderId,
+            OrderStatusChangedToAwaitingValidationIntegrationEvent::getOrderStockItems,
+            (first, last) -> first,
+            LinkedHashMap::new
+        ));
 
-  private boolean hasStock(CatalogItem catalogItem, OrderStockItem orderStockItem) {
-    return catalogItem.getAvailableStock() >= orderStockItem.getUnits();
+    var confirmedEvents = new ArrayList<OrderStockConfirmedIntegrationEvent>();
+    var rejectedEvents = new ArrayList<OrderStockRejectedIntegrationEvent>();
+    stockReservationService.reserve(orderStockItems).forEach((orderId, confirmedOrderStockItems) -> {
+      if (allItemsAvailable(confirmedOrderStockItems)) {
+        confirmedEvents.add(new OrderStockConfirmedIntegrationEvent(orderId));
+      } else {
+        rejectedEvents.add(new OrderStockRejectedIntegrationEvent(orderId, confirmedOrderStockItems));
+      }
+    });
+
+    if (!confirmedEvents.isEmpty()) {
+      integrationEventService.saveEventsAndCatalogContextChanges(orderStockConfirmedTopic, confirmedEvents);
+    }
+    if (!rejectedEvents.isEmpty()) {
+      integrationEventService.saveEventsAndCatalogContextChanges(orderStockRejectedTopic, rejectedEvents);
+    }
   }
 
   private boolean allItemsAvailable(List<ConfirmedOrderStockItem> confirmedOrderStockItems) {
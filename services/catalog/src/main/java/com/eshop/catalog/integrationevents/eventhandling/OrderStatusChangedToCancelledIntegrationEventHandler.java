@@ -0,0 +1,23 @@
+package com.eshop.catalog.integrationevents.eventhandling;
+
+import com.eshop.catalog.integrationevents.events.OrderStatusChangedToCancelledIntegrationEvent;
+import com.eshop.catalog.services.StockReservationService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+@RequiredArgsConstructor
+@Component
+public class OrderStatusChangedToCancelledIntegrationEventHandler {
+  private static final Logger logger = LoggerFactory.getLogger(OrderStatusChangedToCancelledIntegrationEventHandler.class);
+
+  private final StockReservationService stockReservationService;
+
+  @KafkaListener(groupId = "cancelled-orders-group", topics = "${spring.kafka.consumer.topic.cancelledOrders}")
+  public void handle(OrderStatusChangedToCancelledIntegrationEvent event) {
+    logger.info("Handling integration event: {} ({})", event.getId(), event.getClass().getSimpleName());
+    stockReservationService.release(event.getOrderId());
+  }
+}
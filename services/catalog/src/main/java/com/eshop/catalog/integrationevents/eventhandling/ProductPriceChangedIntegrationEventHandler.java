@@ -0,0 +1,45 @@
+package com.eshop.catalog.integrationevents.eventhandling;
+
+import com.eshop.catalog.config.CacheConfig;
+import com.eshop.catalog.integrationevents.events.ProductPriceChange;
+import com.eshop.catalog.integrationevents.events.ProductPricesChangedIntegrationEvent;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts changed items from the local catalog cache. Every catalog instance consumes the price changes in its own
+ * consumer group, so that the item is evicted on all replicas and not only on the one that changed it.
+ * <p>
+ * The group is named after <code>app.catalog-cache.instance-id</code>, the host name by default, so that a
+ * restarted instance reuses its group instead of leaving one more behind on the broker. Replicas that share a
+ * host must be given distinct ids.
+ * <p>
+ * Price changes are published in batches every <code>app.price-changes.publish-interval</code> and then go through
+ * the outbox, so other replicas may serve the old price for up to that interval plus the outbox delay
+ * (<code>app.outbox.polling-interval</code> when the dispatch on commit is missed). The replica that changed the
+ * price evicts its own cache right away.
+ */
+@RequiredArgsConstructor
+@Component
+public class ProductPriceChangedIntegrationEventHandler {
+  private static final Logger logger = LoggerFactory.getLogger(ProductPriceChangedIntegrationEventHandler.class);
+
+  private final CacheManager cacheManager;
+
+  @KafkaListener(
+      groupId = "catalog-cache-${app.catalog-cache.instance-id}",
+      topics = "${spring.kafka.consumer.topic.productPriceChangeBatches}",
+      properties = "auto.offset.reset=latest"
+  )
+  public void handle(ProductPricesChangedIntegrationEvent event) {
+    logger.debug("Evicting {} catalog items after price changes", event.getPriceChanges().size());
+    var itemsCache = cacheManager.getCache(CacheConfig.CATALOG_ITEMS);
+    event.getPriceChanges().stream()
+        .map(ProductPriceChange::getProductId)
+        .forEach(itemsCache::evict);
+  }
+}
@@ -0,0 +1,15 @@
+package com.eshop.catalog.integrationevents.events;
+
+import com.eshop.shared.eventhandling.IntegrationEvent;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+public class OrderStatusChangedToCancelledIntegrationEvent extends IntegrationEvent {
+  private String orderId;
+  private String orderStatus;
+  private String buyerName;
+}
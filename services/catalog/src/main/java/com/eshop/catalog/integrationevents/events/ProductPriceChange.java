@@ -0,0 +1,16 @@
+package com.eshop.catalog.integrationevents.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+public class ProductPriceChange {
+  private Long productId;
+  private BigDecimal newPrice;
+  private BigDecimal oldPrice;
+}
@@ -7,6 +7,12 @@ import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 
+/**
+ * Price change of a single product. It is no longer saved, price changes are published in batches as
+ * {@link ProductPricesChangedIntegrationEvent}. The class stays registered so that entries saved before the
+ * change can still be read from the outbox and published; remove it once none are left.
+ */
+@Deprecated
 @AllArgsConstructor
 @NoArgsConstructor
 @Getter
@@ -0,0 +1,19 @@
+package com.eshop.catalog.integrationevents.events;
+
+import com.eshop.shared.eventhandling.IntegrationEvent;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Price changes of several products. A product appears at most once, with its price before the first and after
+ * the last of the changes that were merged.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+public class ProductPricesChangedIntegrationEvent extends IntegrationEvent {
+  private List<ProductPriceChange> priceChanges;
+}
@@ -2,6 +2,8 @@ package com.eshop.catalog.model;
 
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 
@@ -14,9 +16,22 @@ import javax.persistence.*;
 @Getter
 public class AbstractEntity {
 
+    /**
+     * Number of ids allocated per sequence value, must match the increment of the sequence.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequence_generator")
-    @SequenceGenerator(name = "sequence_generator", sequenceName = "catalog_sequence", allocationSize = 1)
+    @GenericGenerator(
+            name = "sequence_generator",
+            strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator",
+            parameters = {
+                    @Parameter(name = "sequence_name", value = "catalog_sequence"),
+                    @Parameter(name = "increment_size", value = "" + ID_ALLOCATION_SIZE),
+                    @Parameter(name = "optimizer", value = "pooled-lo")
+            }
+    )
     @Column(name = "id", nullable = false)
     private Long id;
 
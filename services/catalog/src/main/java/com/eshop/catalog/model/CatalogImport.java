@@ -0,0 +1,95 @@
+package com.eshop.catalog.model;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Bulk import of a catalog feed and its progress.
+ */
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Getter
+@Entity
+@Table(name = "catalog_import")
+public class CatalogImport {
+    @Id
+    @Column(name = "id", nullable = false)
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "format", nullable = false)
+    private CatalogImportFormat format;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "state", nullable = false)
+    private CatalogImportState state;
+
+    // Items read from the feed so far
+    @Column(name = "processed_items", nullable = false)
+    private long processedItems;
+
+    @Column(name = "inserted_items", nullable = false)
+    private long insertedItems;
+
+    @Column(name = "updated_items", nullable = false)
+    private long updatedItems;
+
+    // Items skipped because they are invalid
+    @Column(name = "rejected_items", nullable = false)
+    private long rejectedItems;
+
+    @Column(name = "changed_prices", nullable = false)
+    private long changedPrices;
+
+    @Column(name = "error")
+    private String error;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    // Refreshed while the import is unfinished and its instance is alive
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public CatalogImport(CatalogImportFormat format) {
+        this.id = UUID.randomUUID();
+        this.format = format;
+        this.state = CatalogImportState.Pending;
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = createdAt;
+    }
+
+    public void start() {
+        state = CatalogImportState.Running;
+        updatedAt = LocalDateTime.now();
+    }
+
+    public void addProgress(long processed, long inserted, long updated, long rejected, long pricesChanged) {
+        processedItems += processed;
+        insertedItems += inserted;
+        updatedItems += updated;
+        rejectedItems += rejected;
+        changedPrices += pricesChanged;
+        updatedAt = LocalDateTime.now();
+    }
+
+    public void complete() {
+        state = CatalogImportState.Completed;
+        finishedAt = LocalDateTime.now();
+        updatedAt = finishedAt;
+    }
+
+    public void fail(String error) {
+        state = CatalogImportState.Failed;
+        this.error = error;
+        finishedAt = LocalDateTime.now();
+        updatedAt = finishedAt;
+    }
+}
@@ -0,0 +1,8 @@
+package com.eshop.catalog.model;
+
+public enum CatalogImportFormat {
+    // Comma separated values with a header row naming the columns
+    CSV,
+    // A JSON array of items, or a sequence of JSON items such as newline delimited JSON
+    JSON
+}
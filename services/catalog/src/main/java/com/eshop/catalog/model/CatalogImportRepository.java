@@ -0,0 +1,55 @@
+package com.eshop.catalog.model;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.UUID;
+
+public interface CatalogImportRepository extends JpaRepository<CatalogImport, UUID> {
+
+  /**
+   * Refreshes the heartbeat of given imports, unless they are finished.
+   */
+  @Transactional
+  @Modifying
+  @Query("update CatalogImport i set i.updatedAt = :now " +
+      "where i.id in :ids " +
+      "  and i.state in (com.eshop.catalog.model.CatalogImportState.Pending, " +
+      "                  com.eshop.catalog.model.CatalogImportState.Running)")
+  int touch(@Param("ids") Collection<UUID> ids, @Param("now") LocalDateTime now);
+
+  /**
+   * Marks given imports as failed, unless they are finished.
+   */
+  @Transactional
+  @Modifying
+  @Query("update CatalogImport i " +
+      "set i.state = com.eshop.catalog.model.CatalogImportState.Failed, i.error = :error, " +
+      "    i.finishedAt = :now, i.updatedAt = :now " +
+      "where i.id in :ids " +
+      "  and i.state in (com.eshop.catalog.model.CatalogImportState.Pending, " +
+      "                  com.eshop.catalog.model.CatalogImportState.Running)")
+  int failUnfinished(@Param("ids") Collection<UUID> ids, @Param("error") String error, @Param("now") LocalDateTime now);
+
+  /**
+   * Marks unfinished imports whose heartbeat is older than given time as failed.
+   */
+  @Transactional
+  @Modifying
+  @Query("update CatalogImport i " +
+      "set i.state = com.eshop.catalog.model.CatalogImportState.Failed, i.error = :error, " +
+      "    i.finishedAt = :now, i.updatedAt = :now " +
+      "where i.updatedAt < :staleBefore " +
+      "  and i.state in (com.eshop.catalog.model.CatalogImportState.Pending, " +
+      "                  com.eshop.catalog.model.CatalogImportState.Running)")
+  int failStale(
+      @Param("staleBefore") LocalDateTime staleBefore,
+      @Param("error") String error,
+      @Param("now") LocalDateTime now
+  );
+}
@@ -0,0 +1,8 @@
+package com.eshop.catalog.model;
+
+public enum CatalogImportState {
+    Pending,
+    Running,
+    Completed,
+    Failed
+}
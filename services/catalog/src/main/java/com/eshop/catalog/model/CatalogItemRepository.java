@@ -1,10 +1,24 @@
 package com.eshop.catalog.model;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 
-public interface CatalogItemRepository extends PagingAndSortingRepository<CatalogItem, Long>, JpaSpecificationExecutor<CatalogItem> {
-  Page<CatalogItem> findAllByName(String name, Pageable pageable);
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface CatalogItemRepository extends PagingAndSortingRepository<CatalogItem, Long>, JpaSpecificationExecutor<CatalogItem>,
+    CatalogItemViewRepository, CatalogItemStockRepository {
+  String VIEW_SELECT = "select new com.eshop.catalog.model.CatalogItemView(" +
+      "i.id, i.name, i.description, i.price, i.pictureFileName, i.availableStock, i.restockThreshold, " +
+      "i.maxStockThreshold, i.onReorder, c.id, c.name, b.id, b.name) " +
+      "from CatalogItem i left join i.category c left join i.brand b ";
+
+  @Query(VIEW_SELECT + "where i.id = :id")
+  Optional<CatalogItemView> findViewById(@Param("id") Long id);
+
+  @Query(VIEW_SELECT + "where i.id in :ids")
+  List<CatalogItemView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
 }
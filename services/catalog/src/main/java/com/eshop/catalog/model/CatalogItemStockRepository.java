@@ -0,0 +1,36 @@
+package com.eshop.catalog.model;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stock updates of several items sent to the database in a single batch.
+ * <p>
+ * Callers should pass adjustments in product id order, so that concurrent transactions lock the items in the same
+ * order and cannot deadlock.
+ */
+public interface CatalogItemStockRepository {
+
+  /**
+   * Returns the available stock of the items with given ids, locked in id order until the transaction ends.
+   * Items that do not exist are missing from the result.
+   */
+  Map<Long, Integer> lockAvailableStock(Collection<Long> productIds);
+
+  /**
+   * Removes units from the available stock of each item, if there are enough of them. The check and the update
+   * are a single statement per item, so concurrent callers can neither oversell nor lose an update.
+   *
+   * @return for every adjustment, 1 if the units have been removed, 0 if the item does not exist or there is not
+   * enough stock
+   */
+  int[] removeStock(List<StockAdjustment> adjustments);
+
+  /**
+   * Returns units to the available stock of each item.
+   *
+   * @return for every adjustment, 1 if the units have been added, 0 if the item does not exist
+   */
+  int[] addStock(List<StockAdjustment> adjustments);
+}
@@ -0,0 +1,68 @@
+package com.eshop.catalog.model;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class CatalogItemStockRepositoryImpl implements CatalogItemStockRepository {
+  private static final String REMOVE_STOCK = "update catalog_item set available_stock = available_stock - ? " +
+      "where id = ? and available_stock >= ?";
+  private static final String LOCK_STOCK = "select id, available_stock from catalog_item " +
+      "where id = any(?) order by id for update";
+  private static final String ADD_STOCK = "update catalog_item set available_stock = available_stock + ? " +
+      "where id = ?";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  CatalogItemStockRepositoryImpl(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  @Override
+  public Map<Long, Integer> lockAvailableStock(Collection<Long> productIds) {
+    var availableStock = new HashMap<Long, Integer>();
+    if (productIds.isEmpty()) {
+      return availableStock;
+    }
+    entityManager.flush();
+    jdbcTemplate.query(
+        LOCK_STOCK,
+        statement -> statement.setArray(1, statement.getConnection().createArrayOf("bigint", productIds.toArray())),
+        row -> {
+          availableStock.put(row.getLong("id"), row.getInt("available_stock"));
+        }
+    );
+    return availableStock;
+  }
+
+  @Override
+  public int[] removeStock(List<StockAdjustment> adjustments) {
+    return update(REMOVE_STOCK, adjustments.stream()
+        .map(adjustment -> new Object[]{adjustment.units(), adjustment.productId(), adjustment.units()})
+        .toList());
+  }
+
+  @Override
+  public int[] addStock(List<StockAdjustment> adjustments) {
+    return update(ADD_STOCK, adjustments.stream()
+        .map(adjustment -> new Object[]{adjustment.units(), adjustment.productId()})
+        .toList());
+  }
+
+  private int[] update(String sql, List<Object[]> batchArgs) {
+    if (batchArgs.isEmpty()) {
+      return new int[0];
+    }
+    // The statements bypass the persistence context, pending changes are written first like before a JPQL update
+    entityManager.flush();
+    return jdbcTemplate.batchUpdate(sql, batchArgs);
+  }
+}
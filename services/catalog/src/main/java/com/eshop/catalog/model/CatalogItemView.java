@@ -0,0 +1,52 @@
+package com.eshop.catalog.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Read-only view of a catalog item, serialized the same way as {@link CatalogItem}. Views are read with a single
+ * query that joins the brand and category, and are never managed by the persistence context.
+ */
+public record CatalogItemView(
+    Long id,
+    String name,
+    String description,
+    BigDecimal price,
+    String pictureFileName,
+    Integer availableStock,
+    Integer restockThreshold,
+    Integer maxStockThreshold,
+    boolean onReorder,
+    Reference category,
+    Reference brand
+) {
+    /**
+     * Constructor used by query constructor expressions, which cannot create nested objects.
+     */
+    public CatalogItemView(
+        Long id,
+        String name,
+        String description,
+        BigDecimal price,
+        String pictureFileName,
+        Integer availableStock,
+        Integer restockThreshold,
+        Integer maxStockThreshold,
+        boolean onReorder,
+        Long categoryId,
+        String categoryName,
+        Long brandId,
+        String brandName
+    ) {
+        this(id, name, description, price, pictureFileName, availableStock, restockThreshold, maxStockThreshold,
+            onReorder, Reference.of(categoryId, categoryName), Reference.of(brandId, brandName));
+    }
+
+    /**
+     * Brand or category of an item.
+     */
+    public record Reference(Long id, String name) {
+        static Reference of(Long id, String name) {
+            return id != null ? new Reference(id, name) : null;
+        }
+    }
+}
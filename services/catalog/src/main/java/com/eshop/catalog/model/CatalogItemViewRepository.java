@@ -0,0 +1,36 @@
+package com.eshop.catalog.model;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Specification queries returning {@link CatalogItemView}s instead of entities.
+ */
+public interface CatalogItemViewRepository {
+
+  /**
+   * Returns the items that match given specification in given page.
+   */
+  Page<CatalogItemView> findViews(Specification<CatalogItem> specification, Pageable pageable);
+
+  /**
+   * Returns the first <code>size</code> items that match given specification, in given order. Unlike a page,
+   * a slice does not need to count all matching items.
+   */
+  Slice<CatalogItemView> findViewSlice(Specification<CatalogItem> specification, Sort sort, int size);
+
+  /**
+   * Returns items whose name, description, brand or category contain given pattern, or contain words similar
+   * to given query, the most similar first. Both conditions are answered by the trigram index of the search
+   * document, so misspelled and partial words are found as well. Matches are only counted when the page does
+   * not show where they end.
+   *
+   * @param query    lower case search query
+   * @param pattern  lower case LIKE pattern
+   * @param pageable page, its sort is ignored
+   */
+  Page<CatalogItemView> searchViews(String query, String pattern, Pageable pageable);
+}
@@ -0,0 +1,130 @@
+package com.eshop.catalog.model;
+
+import org.springframework.data.domain.*;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.JoinType;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.jpa.repository.query.QueryUtils.toOrders;
+
+class CatalogItemViewRepositoryImpl implements CatalogItemViewRepository {
+  private static final String SEARCH_CONDITION = "where i.search_document like :pattern or :query <% i.search_document ";
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Override
+  public Page<CatalogItemView> findViews(Specification<CatalogItem> specification, Pageable pageable) {
+    var query = createQuery(specification, pageable.getSort());
+    if (pageable.isPaged()) {
+      query.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize());
+    }
+
+    return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> count(specification));
+  }
+
+  @Override
+  public Slice<CatalogItemView> findViewSlice(Specification<CatalogItem> specification, Sort sort, int size) {
+    // One more item than requested tells whether there is a next slice
+    var items = createQuery(specification, sort)
+        .setMaxResults(size + 1)
+        .getResultList();
+
+    var hasNext = items.size() > size;
+    var content = hasNext ? items.subList(0, size) : items;
+    return new SliceImpl<>(content, PageRequest.of(0, size, sort), hasNext);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public Page<CatalogItemView> searchViews(String query, String pattern, Pageable pageable) {
+    var search = entityManager.createNativeQuery(
+            "select i.id, i.name, i.description, i.price, i.picture_file_name, i.available_stock, " +
+                "       i.restock_threshold, i.max_stock_threshold, i.on_reorder, c.id, c.name, b.id, b.name " +
+                "from catalog_item i " +
+                "         left join category c on c.id = i.category_id " +
+                "         left join brand b on b.id = i.brand_id " +
+                SEARCH_CONDITION +
+                "order by word_similarity(:query, i.search_document) desc, i.id desc")
+        .setParameter("query", query)
+        .setParameter("pattern", pattern);
+    if (pageable.isPaged()) {
+      search.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize());
+    }
+
+    var items = ((List<Object[]>) search.getResultList()).stream()
+        .map(row -> new CatalogItemView(
+            toLong(row[0]),
+            (String) row[1],
+            (String) row[2],
+            (BigDecimal) row[3],
+            (String) row[4],
+            (Integer) row[5],
+            (Integer) row[6],
+            (Integer) row[7],
+            (Boolean) row[8],
+            toLong(row[9]),
+            (String) row[10],
+            toLong(row[11]),
+            (String) row[12]
+        ))
+        .collect(Collectors.toList());
+
+    return PageableExecutionUtils.getPage(items, pageable, () -> ((Number) entityManager.createNativeQuery(
+            "select count(*) from catalog_item i " + SEARCH_CONDITION)
+        .setParameter("query", query)
+        .setParameter("pattern", pattern)
+        .getSingleResult()).longValue());
+  }
+
+  private TypedQuery<CatalogItemView> createQuery(Specification<CatalogItem> specification, Sort sort) {
+    var builder = entityManager.getCriteriaBuilder();
+    var query = builder.createQuery(CatalogItemView.class);
+    var root = query.from(CatalogItem.class);
+    var category = root.join("category", JoinType.LEFT);
+    var brand = root.join("brand", JoinType.LEFT);
+
+    query.select(builder.construct(
+            CatalogItemView.class,
+            root.get("id"),
+            root.get("name"),
+            root.get("description"),
+            root.get("price"),
+            root.get("pictureFileName"),
+            root.get("availableStock"),
+            root.get("restockThreshold"),
+            root.get("maxStockThreshold"),
+            root.get("onReorder"),
+            category.get("id"),
+            category.get("name"),
+            brand.get("id"),
+            brand.get("name")
+        ))
+        .where(specification.toPredicate(root, query, builder))
+        .orderBy(toOrders(sort, root, builder));
+
+    return entityManager.createQuery(query);
+  }
+
+  private long count(Specification<CatalogItem> specification) {
+    var builder = entityManager.getCriteriaBuilder();
+    var query = builder.createQuery(Long.class);
+    var root = query.from(CatalogItem.class);
+
+    query.select(builder.count(root))
+        .where(specification.toPredicate(root, query, builder));
+
+    return entityManager.createQuery(query).getSingleResult();
+  }
+
+  private static Long toLong(Object value) {
+    return value != null ? ((Number) value).longValue() : null;
+  }
+}
@@ -0,0 +1,37 @@
+package com.eshop.catalog.model;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Price change of a catalog item that has not been published yet. Changes made to the same item before it is
+ * published are merged into this one.
+ */
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Getter
+@Entity
+@Table(name = "pending_price_change")
+public class PendingPriceChange {
+    @Id
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    // Price before the first unpublished change
+    @Column(name = "old_price", nullable = false)
+    private BigDecimal oldPrice;
+
+    @Column(name = "new_price", nullable = false)
+    private BigDecimal newPrice;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+
+    public boolean isPriceChanged() {
+        return oldPrice.compareTo(newPrice) != 0;
+    }
+}
@@ -0,0 +1,22 @@
+package com.eshop.catalog.model;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.util.List;
+
+public interface PendingPriceChangeRepository extends JpaRepository<PendingPriceChange, Long> {
+
+  /**
+   * Returns the oldest pending changes. Changes locked by another transaction are skipped.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "-2"))
+  @Query("select c from PendingPriceChange c order by c.changedAt")
+  List<PendingPriceChange> findOldest(Pageable pageable);
+}
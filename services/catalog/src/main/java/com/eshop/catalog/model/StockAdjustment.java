@@ -0,0 +1,7 @@
+package com.eshop.catalog.model;
+
+/**
+ * Units to be added to or removed from the available stock of a catalog item.
+ */
+public record StockAdjustment(Long productId, int units) {
+}
@@ -0,0 +1,76 @@
+package com.eshop.catalog.model;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Units of a catalog item held for an order between its stock validation and its payment.
+ */
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Getter
+@Entity
+@Table(name = "stock_reservation")
+public class StockReservation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_reservation_generator")
+    @GenericGenerator(
+            name = "stock_reservation_generator",
+            strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator",
+            parameters = {
+                    @Parameter(name = "sequence_name", value = "stock_reservation_id_seq"),
+                    @Parameter(name = "increment_size", value = "" + AbstractEntity.ID_ALLOCATION_SIZE),
+                    @Parameter(name = "optimizer", value = "pooled-lo")
+            }
+    )
+    @Column(name = "id", nullable = false)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private String orderId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "units", nullable = false)
+    private Integer units;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "state", nullable = false)
+    private StockReservationState state;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    public StockReservation(String orderId, Long productId, int units, LocalDateTime expiresAt) {
+        this.orderId = orderId;
+        this.productId = productId;
+        this.units = units;
+        this.state = StockReservationState.Reserved;
+        this.createdAt = LocalDateTime.now();
+        this.expiresAt = expiresAt;
+    }
+
+    public void commit() {
+        changeState(StockReservationState.Committed);
+    }
+
+    public void release() {
+        changeState(StockReservationState.Released);
+    }
+
+    private void changeState(StockReservationState newState) {
+        if (state != StockReservationState.Reserved) {
+            throw new CatalogDomainException("Stock reservation %d is already %s".formatted(id, state));
+        }
+        state = newState;
+    }
+}
@@ -0,0 +1,44 @@
+package com.eshop.catalog.model;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+  /**
+   * Returns those of given orders that already have reservations, whatever their state.
+   */
+  @Query("select distinct r.orderId from StockReservation r where r.orderId in :orderIds")
+  Set<String> findOrderIdsByOrderIdIn(@Param("orderIds") Collection<String> orderIds);
+
+  /**
+   * Returns the pending reservations of the given order, locked until the transaction ends.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("select r from StockReservation r " +
+      "where r.orderId = :orderId and r.state = com.eshop.catalog.model.StockReservationState.Reserved " +
+      "order by r.productId")
+  List<StockReservation> findReservedByOrderId(@Param("orderId") String orderId);
+
+  /**
+   * Returns pending reservations that expired before given time. Reservations locked by another transaction
+   * are skipped.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "-2"))
+  @Query("select r from StockReservation r " +
+      "where r.state = com.eshop.catalog.model.StockReservationState.Reserved and r.expiresAt < :now " +
+      "order by r.productId")
+  List<StockReservation> findExpired(@Param("now") LocalDateTime now, Pageable pageable);
+}
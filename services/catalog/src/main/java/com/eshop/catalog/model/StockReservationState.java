@@ -0,0 +1,10 @@
+package com.eshop.catalog.model;
+
+public enum StockReservationState {
+    // Units are removed from the available stock and held for the order
+    Reserved,
+    // The order has been paid, the units are sold
+    Committed,
+    // The order has been cancelled or not paid in time, the units are back in stock
+    Released
+}
@@ -0,0 +1,28 @@
+package com.eshop.catalog.services;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the imports of this instance alive and fails the ones left unfinished by stopped instances. The first run
+ * happens at startup.
+ */
+@RequiredArgsConstructor
+@Component
+public class CatalogImportHeartbeatProcessor {
+  private static final Logger logger = LoggerFactory.getLogger(CatalogImportHeartbeatProcessor.class);
+
+  private final CatalogImportService catalogImportService;
+
+  @Scheduled(fixedDelayString = "${app.catalog-import.heartbeat-interval:PT1M}")
+  public void process() {
+    var failed = catalogImportService.heartbeat();
+
+    if (failed > 0) {
+      logger.warn("Marked {} abandoned catalog imports as failed", failed);
+    }
+  }
+}
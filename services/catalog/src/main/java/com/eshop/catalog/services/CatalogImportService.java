@@ -0,0 +1,41 @@
+package com.eshop.catalog.services;
+
+import com.eshop.catalog.model.CatalogImport;
+import com.eshop.catalog.model.CatalogImportFormat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Bulk import of catalog feeds. Feeds are processed in the background and their progress is kept with the import.
+ */
+public interface CatalogImportService {
+
+    /**
+     * Stores given feed and schedules its import.
+     *
+     * @param feed   catalog feed
+     * @param format feed format
+     * @return the pending import
+     * @throws IOException if the feed cannot be read
+     */
+    CatalogImport startImport(InputStream feed, CatalogImportFormat format) throws IOException;
+
+    /**
+     * Returns import by id.
+     *
+     * @param id import id
+     * @return catalog import
+     */
+    Optional<CatalogImport> getImport(UUID id);
+
+    /**
+     * Refreshes the heartbeat of the unfinished imports of this instance, and marks unfinished imports without
+     * a recent heartbeat as failed, since the instance that stored their feed has stopped.
+     *
+     * @return number of imports marked as failed
+     */
+    int heartbeat();
+}
@@ -0,0 +1,229 @@
+package com.eshop.catalog.services;
+
+import com.eshop.catalog.config.CatalogImportConfig;
+import com.eshop.catalog.model.CatalogImport;
+import com.eshop.catalog.model.CatalogImportFormat;
+import com.eshop.catalog.model.CatalogImportRepository;
+import com.eshop.catalog.model.CatalogImportState;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Imports catalog feeds without loading them into memory. The feed is spooled to a temporary file, so that the
+ * upload does not wait for the import, and is then read item by item and written in chunks. Imports run one at a
+ * time on a background thread.
+ * <p>
+ * A feed is only stored on the instance that received it, so imports cannot be resumed elsewhere. Imports left
+ * unfinished by a shutdown are marked as failed, and so are the ones of an instance that stopped without a
+ * shutdown, once their heartbeat is older than <code>app.catalog-import.stale-after</code>.
+ */
+@Service
+public class CatalogImportServiceImpl implements CatalogImportService {
+  private static final Logger logger = LoggerFactory.getLogger(CatalogImportServiceImpl.class);
+
+  private final CatalogImportRepository catalogImportRepository;
+  private final CatalogItemBulkWriter catalogItemBulkWriter;
+  private final int chunkSize;
+  private final ObjectReader csvReader;
+  private final ObjectReader jsonReader;
+  private final ThreadPoolTaskExecutor executor;
+  private final Duration staleAfter;
+  // Feeds of the unfinished imports of this instance
+  private final Map<UUID, Path> unfinishedImports = new ConcurrentHashMap<>();
+
+  public CatalogImportServiceImpl(
+      CatalogImportRepository catalogImportRepository,
+      CatalogItemBulkWriter catalogItemBulkWriter,
+      @Qualifier(CatalogImportConfig.CATALOG_IMPORT_EXECUTOR) ThreadPoolTaskExecutor executor,
+      @Value("${app.catalog-import.chunk-size:1000}") int chunkSize,
+      @Value("${app.catalog-import.stale-after:PT5M}") Duration staleAfter
+  ) {
+    this.catalogImportRepository = catalogImportRepository;
+    this.catalogItemBulkWriter = catalogItemBulkWriter;
+    this.executor = executor;
+    this.chunkSize = chunkSize;
+    this.staleAfter = staleAfter;
+
+    var csvMapper = new CsvMapper();
+    csvMapper.enable(CsvParser.Feature.TRIM_SPACES);
+    csvMapper.enable(CsvParser.Feature.EMPTY_STRING_AS_NULL);
+    csvMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    // Columns are taken from the header line
+    this.csvReader = csvMapper
+        .readerFor(ImportedCatalogItem.class)
+        .with(CsvSchema.emptySchema().withHeader());
+
+    // Reads both a JSON array and a stream of JSON objects
+    this.jsonReader = new ObjectMapper()
+        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+        .readerFor(ImportedCatalogItem.class);
+  }
+
+  @Override
+  public CatalogImport startImport(InputStream feed, CatalogImportFormat format) throws IOException {
+    var file = Files.createTempFile("catalog-import-", "." + format.name().toLowerCase());
+    try (feed) {
+      Files.copy(feed, file, StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      Files.deleteIfExists(file);
+      throw e;
+    }
+
+    var catalogImport = catalogImportRepository.save(new CatalogImport(format));
+    logger.info("Scheduling catalog import {} ({} bytes)", catalogImport.getId(), Files.size(file));
+    unfinishedImports.put(catalogImport.getId(), file);
+    try {
+      executor.execute(() -> runImport(catalogImport.getId(), file));
+    } catch (TaskRejectedException e) {
+      failUnfinished(List.of(catalogImport.getId()), "Rejected during shutdown");
+      throw e;
+    }
+    return catalogImport;
+  }
+
+  @Override
+  public Optional<CatalogImport> getImport(UUID id) {
+    return catalogImportRepository.findById(id);
+  }
+
+  @Override
+  public int heartbeat() {
+    var now = LocalDateTime.now();
+    if (!unfinishedImports.isEmpty()) {
+      catalogImportRepository.touch(List.copyOf(unfinishedImports.keySet()), now);
+    }
+    return catalogImportRepository.failStale(now.minus(staleAfter), "Abandoned by a stopped instance", now);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    // Interrupts the running import, which then fails itself, and drops the queued ones
+    executor.shutdown();
+    failUnfinished(List.copyOf(unfinishedImports.keySet()), "Interrupted by shutdown");
+  }
+
+  private void failUnfinished(List<UUID> ids, String error) {
+    if (ids.isEmpty()) {
+      return;
+    }
+
+    var failed = catalogImportRepository.failUnfinished(ids, error, LocalDateTime.now());
+    logger.warn("Marked {} unfinished catalog imports as failed: {}", failed, error);
+    ids.stream()
+        .map(unfinishedImports::remove)
+        .filter(Objects::nonNull)
+        .forEach(this::deleteFile);
+  }
+
+  private void runImport(UUID id, Path file) {
+    try {
+      var catalogImport = catalogImportRepository.findById(id).orElseThrow();
+      // Failed meanwhile, because its heartbeat was missed
+      if (catalogImport.getState() != CatalogImportState.Pending) {
+        logger.warn("Catalog import {} is {}, it is not started", id, catalogImport.getState());
+        return;
+      }
+      runImport(catalogImport, file);
+    } finally {
+      unfinishedImports.remove(id);
+      deleteFile(file);
+    }
+  }
+
+  private void runImport(CatalogImport catalogImport, Path file) {
+    var id = catalogImport.getId();
+    catalogImport.start();
+    catalogImport = catalogImportRepository.save(catalogImport);
+
+    try (MappingIterator<ImportedCatalogItem> items = reader(catalogImport.getFormat()).readValues(file.toFile())) {
+      var chunk = new ArrayList<ImportedCatalogItem>(chunkSize);
+      var rejected = 0;
+
+      while (items.hasNextValue()) {
+        if (Thread.currentThread().isInterrupted()) {
+          throw new InterruptedException("Interrupted by shutdown");
+        }
+
+        var item = items.nextValue();
+        if (item.isValid()) {
+          chunk.add(item);
+        } else {
+          rejected++;
+        }
+
+        if (chunk.size() + rejected >= chunkSize) {
+          catalogImport = writeChunk(catalogImport, chunk, rejected);
+          chunk.clear();
+          rejected = 0;
+        }
+      }
+      catalogImport = writeChunk(catalogImport, chunk, rejected);
+
+      catalogImport.complete();
+      catalogImport = catalogImportRepository.save(catalogImport);
+      logger.info("Catalog import {} completed: {} items processed, {} inserted, {} updated, {} rejected",
+          id, catalogImport.getProcessedItems(), catalogImport.getInsertedItems(),
+          catalogImport.getUpdatedItems(), catalogImport.getRejectedItems());
+    } catch (Exception e) {
+      logger.error("Catalog import {} failed after {} items", id, catalogImport.getProcessedItems(), e);
+      catalogImport.fail(e.getMessage());
+      catalogImportRepository.save(catalogImport);
+    }
+  }
+
+  private CatalogImport writeChunk(CatalogImport catalogImport, List<ImportedCatalogItem> chunk, int rejected) {
+    if (chunk.isEmpty() && rejected == 0) {
+      return catalogImport;
+    }
+
+    var result = chunk.isEmpty()
+        ? new CatalogItemBulkWriter.Result(0, 0, 0)
+        : catalogItemBulkWriter.write(chunk);
+    catalogImport.addProgress(
+        chunk.size() + rejected,
+        result.inserted(),
+        result.updated(),
+        rejected,
+        result.pricesChanged()
+    );
+    return catalogImportRepository.save(catalogImport);
+  }
+
+  private ObjectReader reader(CatalogImportFormat format) {
+    return switch (format) {
+      case CSV -> csvReader;
+      case JSON -> jsonReader;
+    };
+  }
+
+  private void deleteFile(Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      logger.warn("Could not delete catalog feed {}", file, e);
+    }
+  }
+}
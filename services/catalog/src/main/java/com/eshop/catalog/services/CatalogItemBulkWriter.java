@@ -0,0 +1,190 @@
+package com.eshop.catalog.services;
+
+import com.eshop.catalog.config.CacheConfig;
+import com.eshop.catalog.integrationevents.events.ProductPriceChange;
+import com.eshop.catalog.model.AbstractEntity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Writes chunks of imported items with JDBC batch upserts. Each chunk is written in its own transaction, together
+ * with the price changes of the items it updated.
+ * <p>
+ * Ids of new items are taken in blocks from the catalog sequence, the same way as the entities allocate theirs,
+ * so a chunk needs one sequence value per {@link AbstractEntity#ID_ALLOCATION_SIZE} new items.
+ */
+@RequiredArgsConstructor
+@Component
+class CatalogItemBulkWriter {
+  private static final String UPSERT_ITEM = """
+      insert into catalog_item (id, sku, name, description, price, picture_file_name, available_stock,
+                                restock_threshold, max_stock_threshold, on_reorder, brand_id, category_id)
+      values (:id, :sku, :name, :description, :price, :pictureFileName, :availableStock,
+              :restockThreshold, :maxStockThreshold, false, :brandId, :categoryId)
+      on conflict (sku) do update
+          set name                = excluded.name,
+              description         = excluded.description,
+              price               = excluded.price,
+              picture_file_name   = excluded.picture_file_name,
+              available_stock     = coalesce(excluded.available_stock, catalog_item.available_stock),
+              restock_threshold   = coalesce(excluded.restock_threshold, catalog_item.restock_threshold),
+              max_stock_threshold = coalesce(excluded.max_stock_threshold, catalog_item.max_stock_threshold),
+              brand_id            = excluded.brand_id,
+              category_id         = excluded.category_id
+      """;
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+  private final PriceChangePublisher priceChangePublisher;
+  private final CacheManager cacheManager;
+
+  @Transactional
+  public Result write(List<ImportedCatalogItem> importedItems) {
+    // The last occurrence of a SKU within a chunk wins
+    var items = importedItems.stream()
+        .collect(Collectors.toMap(ImportedCatalogItem::sku, item -> item, (first, last) -> last, LinkedHashMap::new))
+        .values();
+
+    var existingItems = findExistingItems(items);
+    var brandIds = resolveIds("brand", names(items, ImportedCatalogItem::brand));
+    var categoryIds = resolveIds("category", names(items, ImportedCatalogItem::category));
+
+    // Existing items keep their id, it only has to be present for the insert to be attempted
+    var newIds = allocateIds((int) items.stream().filter(item -> !existingItems.containsKey(item.sku())).count());
+
+    jdbcTemplate.batchUpdate(UPSERT_ITEM, items.stream()
+        .map(item -> new MapSqlParameterSource()
+            .addValue("id", existingItems.containsKey(item.sku()) ? existingItems.get(item.sku()).id() : newIds.poll())
+            .addValue("sku", item.sku())
+            .addValue("name", item.name())
+            .addValue("description", item.description())
+            .addValue("price", item.price())
+            .addValue("pictureFileName", item.pictureFileName())
+            .addValue("availableStock", item.availableStock())
+            .addValue("restockThreshold", item.restockThreshold())
+            .addValue("maxStockThreshold", item.maxStockThreshold())
+            .addValue("brandId", brandIds.get(item.brand()))
+            .addValue("categoryId", categoryIds.get(item.category())))
+        .toArray(MapSqlParameterSource[]::new));
+
+    var priceChanges = items.stream()
+        .filter(item -> existingItems.containsKey(item.sku()))
+        .filter(item -> existingItems.get(item.sku()).price().compareTo(item.price()) != 0)
+        .map(item -> {
+          var existingItem = existingItems.get(item.sku());
+          return new ProductPriceChange(existingItem.id(), item.price(), existingItem.price());
+        })
+        .collect(Collectors.toList());
+    if (!priceChanges.isEmpty()) {
+      priceChangePublisher.pricesChanged(priceChanges);
+    }
+
+    var itemsCache = cacheManager.getCache(CacheConfig.CATALOG_ITEMS);
+    existingItems.values().forEach(existingItem -> itemsCache.evict(existingItem.id()));
+
+    return new Result(items.size() - existingItems.size(), existingItems.size(), priceChanges.size());
+  }
+
+  private Map<String, ExistingItem> findExistingItems(Collection<ImportedCatalogItem> items) {
+    var skus = items.stream().map(ImportedCatalogItem::sku).collect(Collectors.toList());
+    var existingItems = new HashMap<String, ExistingItem>();
+
+    jdbcTemplate.query(
+        "select id, sku, price from catalog_item where sku in (:skus)",
+        Map.of("skus", skus),
+        resultSet -> {
+          existingItems.put(
+              resultSet.getString("sku"),
+              new ExistingItem(resultSet.getLong("id"), resultSet.getBigDecimal("price"))
+          );
+        }
+    );
+    return existingItems;
+  }
+
+  /**
+   * Returns the ids of the brands or categories with given names, creating the missing ones.
+   */
+  private Map<String, Long> resolveIds(String table, Set<String> names) {
+    var ids = new HashMap<String, Long>();
+    if (names.isEmpty()) {
+      return ids;
+    }
+
+    jdbcTemplate.query(
+        "select id, name from %s where name in (:names)".formatted(table),
+        Map.of("names", names),
+        resultSet -> {
+          ids.putIfAbsent(resultSet.getString("name"), resultSet.getLong("id"));
+        }
+    );
+
+    var missingNames = names.stream()
+        .filter(name -> !ids.containsKey(name))
+        .collect(Collectors.toList());
+    if (missingNames.isEmpty()) {
+      return ids;
+    }
+
+    // Names created meanwhile by a concurrent import are skipped, and their rows are read below
+    jdbcTemplate.batchUpdate(
+        "insert into %s (id, name) values (nextval('catalog_sequence'), :name) on conflict (name) do nothing"
+            .formatted(table),
+        missingNames.stream()
+            .map(name -> new MapSqlParameterSource("name", name))
+            .toArray(MapSqlParameterSource[]::new)
+    );
+    jdbcTemplate.query(
+        "select id, name from %s where name in (:names)".formatted(table),
+        Map.of("names", missingNames),
+        resultSet -> {
+          ids.put(resultSet.getString("name"), resultSet.getLong("id"));
+        }
+    );
+
+    cacheManager.getCache("brand".equals(table) ? CacheConfig.CATALOG_BRANDS : CacheConfig.CATALOG_CATEGORIES).clear();
+    return ids;
+  }
+
+  /**
+   * Allocates given number of item ids. Every sequence value is the first id of a block, as with the pooled-lo
+   * optimizer of the entities.
+   */
+  private Queue<Long> allocateIds(int count) {
+    var ids = new ArrayDeque<Long>(count);
+    if (count == 0) {
+      return ids;
+    }
+
+    var blocks = (count + AbstractEntity.ID_ALLOCATION_SIZE - 1) / AbstractEntity.ID_ALLOCATION_SIZE;
+    jdbcTemplate.query(
+        "select nextval('catalog_sequence') from generate_series(1, :blocks)",
+        Map.of("blocks", blocks),
+        resultSet -> {
+          var firstId = resultSet.getLong(1);
+          for (var i = 0; i < AbstractEntity.ID_ALLOCATION_SIZE && ids.size() < count; i++) {
+            ids.add(firstId + i);
+          }
+        }
+    );
+    return ids;
+  }
+
+  private Set<String> names(Collection<ImportedCatalogItem> items, Function<ImportedCatalogItem, String> name) {
+    return items.stream().map(name).filter(Objects::nonNull).collect(Collectors.toSet());
+  }
+
+  record Result(int inserted, int updated, int pricesChanged) {
+  }
+
+  private record ExistingItem(Long id, BigDecimal price) {
+  }
+}
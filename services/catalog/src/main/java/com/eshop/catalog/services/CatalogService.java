@@ -2,9 +2,11 @@ package com.eshop.catalog.services;
 
 import com.eshop.catalog.model.Brand;
 import com.eshop.catalog.model.CatalogItem;
+import com.eshop.catalog.model.CatalogItemView;
 import com.eshop.catalog.model.Category;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 import java.util.Optional;
@@ -20,7 +22,7 @@ public interface CatalogService {
      * @param id item id
      * @return catalog item
      */
-    Optional<CatalogItem> getItemById(Long id);
+    Optional<CatalogItemView> getItemById(Long id);
 
     /**
      * Returns items by ids.
@@ -28,7 +30,7 @@ public interface CatalogService {
      * @param itemIds item ids
      * @return catalog items
      */
-    Iterable<CatalogItem> getItemsByIds(List<Long> itemIds);
+    Iterable<CatalogItemView> getItemsByIds(List<Long> itemIds);
 
     /**
      * Returns items by given brand and category in given page.
@@ -38,16 +40,29 @@ public interface CatalogService {
      * @param pageRequest page
      * @return catalog items
      */
-    Page<CatalogItem> getItems(Brand brand, Category category, PageRequest pageRequest);
+    Page<CatalogItemView> getItems(Brand brand, Category category, PageRequest pageRequest);
 
     /**
-     * Returns items by given name in given page.
+     * Returns items by given brand and category that come after given item, newest first. The cost does not
+     * depend on how far the listing has been scrolled.
      *
-     * @param name item name
-     * @param page page
+     * @param brand    item brand
+     * @param category item category
+     * @param afterId  id of the last item of the previous slice, or null for the first slice
+     * @param size     number of items
      * @return catalog items
      */
-    Page<CatalogItem> getItems(String name, PageRequest page);
+    Slice<CatalogItemView> getItemsAfter(Brand brand, Category category, Long afterId, int size);
+
+    /**
+     * Returns items whose name, description, brand or category match given query, best matches first.
+     * Partial and misspelled words match as well.
+     *
+     * @param query search query
+     * @param page  page
+     * @return catalog items
+     */
+    Page<CatalogItemView> searchItems(String query, PageRequest page);
 
     /**
      * Updates catalog item
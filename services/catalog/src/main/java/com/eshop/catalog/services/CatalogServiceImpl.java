@@ -1,25 +1,30 @@
 package com.eshop.catalog.services;
 
-import com.eshop.catalog.integrationevents.IntegrationEventService;
-import com.eshop.catalog.integrationevents.events.ProductPriceChangedIntegrationEvent;
+import com.eshop.catalog.config.CacheConfig;
 import com.eshop.catalog.model.*;
 import com.eshop.shared.rest.error.NotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import static com.eshop.catalog.services.CatalogSpecification.itemBrandEqual;
 import static com.eshop.catalog.services.CatalogSpecification.itemCategoryEqual;
+import static com.eshop.catalog.services.CatalogSpecification.itemIdLessThan;
 
 @RequiredArgsConstructor
 @Service
@@ -30,36 +35,69 @@ public class CatalogServiceImpl implements CatalogService {
   private final CatalogItemRepository catalogItemRepository;
   private final CategoryRepository categoryRepository;
   private final BrandRepository brandRepository;
-  private final IntegrationEventService integrationEventService;
-
-  @Value("${spring.kafka.consumer.topic.productPriceChanges}")
-  private String productPriceChangesTopic;
+  private final PriceChangePublisher priceChangePublisher;
+  private final CacheManager cacheManager;
 
   @Override
-  public Optional<CatalogItem> getItemById(Long id) {
-    return catalogItemRepository.findById(id);
+  @Cacheable(cacheNames = CacheConfig.CATALOG_ITEMS, unless = "#result == null")
+  @Transactional(readOnly = true)
+  public Optional<CatalogItemView> getItemById(Long id) {
+    return catalogItemRepository.findViewById(id);
   }
 
   @Override
-  public Iterable<CatalogItem> getItemsByIds(List<Long> itemIds) {
-    return catalogItemRepository.findAllById(itemIds);
+  @Transactional(readOnly = true)
+  public Iterable<CatalogItemView> getItemsByIds(List<Long> itemIds) {
+    var itemsCache = cacheManager.getCache(CacheConfig.CATALOG_ITEMS);
+    var items = new ArrayList<CatalogItemView>(itemIds.size());
+    var missingItemIds = new ArrayList<Long>();
+
+    for (var itemId : itemIds) {
+      var cachedItem = itemsCache.get(itemId, CatalogItemView.class);
+      if (cachedItem != null) {
+        items.add(cachedItem);
+      } else {
+        missingItemIds.add(itemId);
+      }
+    }
+
+    if (!missingItemIds.isEmpty()) {
+      catalogItemRepository.findViewsByIdIn(missingItemIds).forEach(item -> {
+        itemsCache.put(item.id(), item);
+        items.add(item);
+      });
+    }
+    return items;
   }
 
   @Override
-  public Page<CatalogItem> getItems(Brand brand, Category category, PageRequest page) {
+  @Transactional(readOnly = true)
+  public Page<CatalogItemView> getItems(Brand brand, Category category, PageRequest page) {
     logger.info("Load items");
-    return catalogItemRepository.findAll(
+    return catalogItemRepository.findViews(
         Specification.where(itemBrandEqual(brand).and(itemCategoryEqual(category))),
         page.withSort(Sort.sort(CatalogItem.class).by(CatalogItem::getId).descending())
     );
   }
 
   @Override
-  public Page<CatalogItem> getItems(String name, PageRequest page) {
-    return catalogItemRepository.findAllByName(name, page);
+  @Transactional(readOnly = true)
+  public Slice<CatalogItemView> getItemsAfter(Brand brand, Category category, Long afterId, int size) {
+    return catalogItemRepository.findViewSlice(
+        Specification.where(itemBrandEqual(brand).and(itemCategoryEqual(category)).and(itemIdLessThan(afterId))),
+        Sort.sort(CatalogItem.class).by(CatalogItem::getId).descending(),
+        size
+    );
+  }
+
+  @Override
+  public Page<CatalogItemView> searchItems(String query, PageRequest page) {
+    var normalizedQuery = query.trim().replaceAll("\\s+", " ").toLowerCase();
+    return catalogItemRepository.searchViews(normalizedQuery, "%%%s%%".formatted(escapeLike(normalizedQuery)), page);
   }
 
   @Override
+  @CacheEvict(cacheNames = CacheConfig.CATALOG_ITEMS, key = "#item.id")
   public void updateItem(CatalogItem item) {
     catalogItemRepository.findById(item.getId())
         .ifPresentOrElse(
@@ -76,6 +114,7 @@ public class CatalogServiceImpl implements CatalogService {
   }
 
   @Override
+  @CacheEvict(cacheNames = CacheConfig.CATALOG_ITEMS, key = "#id")
   public void deleteItem(Long id) {
     catalogItemRepository.findById(id)
         .ifPresentOrElse(
@@ -88,21 +127,25 @@ public class CatalogServiceImpl implements CatalogService {
   }
 
   @Override
+  @Cacheable(cacheNames = CacheConfig.CATALOG_BRANDS, unless = "#result == null")
   public Optional<Brand> getBrandById(Long id) {
     return brandRepository.findById(id);
   }
 
   @Override
+  @Cacheable(CacheConfig.CATALOG_BRANDS)
   public Iterable<Brand> getAllBrands() {
     return brandRepository.findAll();
   }
 
   @Override
+  @Cacheable(cacheNames = CacheConfig.CATALOG_CATEGORIES, unless = "#result == null")
   public Optional<Category> getCategoryById(Long id) {
     return categoryRepository.findById(id);
   }
 
   @Override
+  @Cacheable(CacheConfig.CATALOG_CATEGORIES)
   public Iterable<Category> getAllCategories() {
     return categoryRepository.findAll();
   }
@@ -112,14 +155,8 @@ public class CatalogServiceImpl implements CatalogService {
     final var updatedItem = item.toBuilder().build();
 
     if (priceChanged(oldPrice, item.getPrice())) {
-      // Create Integration Event to be published through the Event Bus
-      var priceChangedEvent = new ProductPriceChangedIntegrationEvent(
-          itemFromDb.getId(),
-          updatedItem.getPrice(),
-          oldPrice
-      );
-
-      integrationEventService.saveEventAndCatalogContextChanges(productPriceChangesTopic, priceChangedEvent);
+      // Published with other recent price changes
+      priceChangePublisher.priceChanged(itemFromDb.getId(), updatedItem.getPrice(), oldPrice);
     }
     catalogItemRepository.save(updatedItem);
   }
@@ -128,4 +165,8 @@ public class CatalogServiceImpl implements CatalogService {
     return oldPrice.compareTo(newPrice) != 0;
   }
 
+  private static String escapeLike(String value) {
+    return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+  }
+
 }
@@ -21,4 +21,10 @@ final class CatalogSpecification {
         : builder.conjunction();
   }
 
+  public static Specification<CatalogItem> itemIdLessThan(Long id) {
+    return (root, query, builder) -> nonNull(id)
+        ? builder.lessThan(root.get("id"), id)
+        : builder.conjunction();
+  }
+
 }
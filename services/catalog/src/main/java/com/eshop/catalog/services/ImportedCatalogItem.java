@@ -0,0 +1,55 @@
+package com.eshop.catalog.services;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+/**
+ * Catalog item as read from an import feed. Brand and category are given by name and are created when missing.
+ * Items are identified by their SKU, an existing item with the same SKU is updated.
+ */
+public record ImportedCatalogItem(
+    String sku,
+    String name,
+    String description,
+    BigDecimal price,
+    String pictureFileName,
+    Integer availableStock,
+    Integer restockThreshold,
+    Integer maxStockThreshold,
+    String brand,
+    String category
+) {
+  private static final int MAX_SKU_LENGTH = 64;
+  private static final int MIN_NAME_LENGTH = 5;
+  private static final int MAX_NAME_LENGTH = 50;
+  private static final int MAX_DESCRIPTION_LENGTH = 255;
+  private static final int MAX_PICTURE_FILE_NAME_LENGTH = 255;
+  private static final int MAX_BRAND_LENGTH = 100;
+  private static final int MAX_CATEGORY_LENGTH = 100;
+  private static final int PRICE_PRECISION = 19;
+  private static final int PRICE_SCALE = 2;
+
+  /**
+   * Checks the constraints of the catalog item entity and the sizes of every column written by the bulk insert,
+   * so that an invalid row is rejected on its own instead of failing the batch it is written with.
+   */
+  boolean isValid() {
+    return !isBlank(sku) && sku.length() <= MAX_SKU_LENGTH
+        && !isBlank(name) && name.length() >= MIN_NAME_LENGTH && name.length() <= MAX_NAME_LENGTH
+        && fits(description, MAX_DESCRIPTION_LENGTH) && fits(pictureFileName, MAX_PICTURE_FILE_NAME_LENGTH)
+        && fits(brand, MAX_BRAND_LENGTH) && fits(category, MAX_CATEGORY_LENGTH)
+        && price != null && price.signum() >= 0
+        && price.setScale(PRICE_SCALE, RoundingMode.HALF_UP).precision() <= PRICE_PRECISION
+        && isNotNegative(availableStock) && isNotNegative(restockThreshold) && isNotNegative(maxStockThreshold);
+  }
+
+  private static boolean fits(String value, int maxLength) {
+    return value == null || value.length() <= maxLength;
+  }
+
+  private static boolean isNotNegative(Integer value) {
+    return value == null || value >= 0;
+  }
+}
@@ -0,0 +1,32 @@
+package com.eshop.catalog.services;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the price changes collected since the previous run.
+ */
+@RequiredArgsConstructor
+@Component
+public class PriceChangePublishProcessor {
+  private static final Logger logger = LoggerFactory.getLogger(PriceChangePublishProcessor.class);
+
+  private final PriceChangePublisher priceChangePublisher;
+
+  @Scheduled(fixedDelayString = "${app.price-changes.publish-interval:PT5S}")
+  public void process() {
+    int published;
+    int total = 0;
+    do {
+      published = priceChangePublisher.publishPending();
+      total += published;
+    } while (published > 0);
+
+    if (total > 0) {
+      logger.info("Published {} price changes", total);
+    }
+  }
+}
@@ -0,0 +1,36 @@
+package com.eshop.catalog.services;
+
+import com.eshop.catalog.integrationevents.events.ProductPriceChange;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Publishes price changes of catalog items in batches. Changes are collected for a short time, changes of the same
+ * item are merged, and all of them are published in a single integration event.
+ */
+public interface PriceChangePublisher {
+
+    /**
+     * Records a price change to be published. Must be called in the transaction that changes the price.
+     *
+     * @param productId item id
+     * @param newPrice  price after the change
+     * @param oldPrice  price before the change
+     */
+    void priceChanged(Long productId, BigDecimal newPrice, BigDecimal oldPrice);
+
+    /**
+     * Records several price changes to be published. Must be called in the transaction that changes the prices.
+     *
+     * @param priceChanges price changes
+     */
+    void pricesChanged(List<ProductPriceChange> priceChanges);
+
+    /**
+     * Publishes the oldest pending price changes in one event.
+     *
+     * @return number of published changes
+     */
+    int publishPending();
+}
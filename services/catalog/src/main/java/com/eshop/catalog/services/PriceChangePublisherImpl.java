@@ -0,0 +1,86 @@
+package com.eshop.catalog.services;
+
+import com.eshop.catalog.integrationevents.IntegrationEventService;
+import com.eshop.catalog.integrationevents.events.ProductPriceChange;
+import com.eshop.catalog.integrationevents.events.ProductPricesChangedIntegrationEvent;
+import com.eshop.catalog.model.PendingPriceChange;
+import com.eshop.catalog.model.PendingPriceChangeRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps pending price changes in a table, so that they are recorded atomically with the price itself and can be
+ * published by any catalog instance. Publishing removes the changes and saves their event through the outbox in
+ * the same transaction.
+ */
+@RequiredArgsConstructor
+@Service
+public class PriceChangePublisherImpl implements PriceChangePublisher {
+  // A change of an item that is already pending keeps its old price and replaces its new price
+  private static final String MERGE_PRICE_CHANGE = """
+      insert into pending_price_change (product_id, old_price, new_price, changed_at)
+      values (:productId, :oldPrice, :newPrice, now())
+      on conflict (product_id) do update set new_price = excluded.new_price
+      """;
+
+  private final PendingPriceChangeRepository pendingPriceChangeRepository;
+  private final IntegrationEventService integrationEventService;
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  @Value("${spring.kafka.consumer.topic.productPriceChangeBatches}")
+  private String productPriceChangeBatchesTopic;
+
+  @Value("${app.price-changes.batch-size:500}")
+  private int batchSize;
+
+  @Override
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void priceChanged(Long productId, BigDecimal newPrice, BigDecimal oldPrice) {
+    pricesChanged(List.of(new ProductPriceChange(productId, newPrice, oldPrice)));
+  }
+
+  @Override
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void pricesChanged(List<ProductPriceChange> priceChanges) {
+    jdbcTemplate.batchUpdate(MERGE_PRICE_CHANGE, priceChanges.stream()
+        .map(priceChange -> new MapSqlParameterSource()
+            .addValue("productId", priceChange.getProductId())
+            .addValue("oldPrice", priceChange.getOldPrice())
+            .addValue("newPrice", priceChange.getNewPrice()))
+        .toArray(MapSqlParameterSource[]::new));
+  }
+
+  @Override
+  @Transactional
+  public int publishPending() {
+    var pendingPriceChanges = pendingPriceChangeRepository.findOldest(PageRequest.of(0, batchSize));
+    if (pendingPriceChanges.isEmpty()) {
+      return 0;
+    }
+
+    // Changes that were reverted before being published are dropped
+    var priceChanges = pendingPriceChanges.stream()
+        .filter(PendingPriceChange::isPriceChanged)
+        .map(change -> new ProductPriceChange(change.getProductId(), change.getNewPrice(), change.getOldPrice()))
+        .collect(Collectors.toList());
+    if (!priceChanges.isEmpty()) {
+      integrationEventService.saveEventAndCatalogContextChanges(
+          productPriceChangeBatchesTopic,
+          new ProductPricesChangedIntegrationEvent(priceChanges)
+      );
+    }
+
+    pendingPriceChangeRepository.deleteAllInBatch(pendingPriceChanges);
+    return pendingPriceChanges.size();
+  }
+}
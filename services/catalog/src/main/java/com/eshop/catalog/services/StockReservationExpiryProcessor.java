@@ -0,0 +1,32 @@
+package com.eshop.catalog.services;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Returns the stock of orders that were validated but neither paid nor cancelled in time.
+ */
+@RequiredArgsConstructor
+@Component
+public class StockReservationExpiryProcessor {
+  private static final Logger logger = LoggerFactory.getLogger(StockReservationExpiryProcessor.class);
+
+  private final StockReservationService stockReservationService;
+
+  @Scheduled(fixedDelayString = "${app.stock-reservation.expiry-interval:PT1M}")
+  public void process() {
+    int released;
+    int total = 0;
+    do {
+      released = stockReservationService.releaseExpired();
+      total += released;
+    } while (released > 0);
+
+    if (total > 0) {
+      logger.info("Released {} expired stock reservations", total);
+    }
+  }
+}
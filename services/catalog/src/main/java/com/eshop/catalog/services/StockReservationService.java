@@ -0,0 +1,46 @@
+package com.eshop.catalog.services;
+
+import com.eshop.catalog.integrationevents.events.ConfirmedOrderStockItem;
+import com.eshop.catalog.integrationevents.events.OrderStockItem;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stock reservation service. Stock is reserved for an order when it is validated, and the reservation is
+ * committed when the order is paid or released when the order is cancelled or not paid in time.
+ */
+public interface StockReservationService {
+
+    /**
+     * Reserves the stock of several orders. The stock of an order is reserved for all of its items or for none of
+     * them, and orders are served in iteration order when they compete for the same items. Orders that already
+     * have reservations are confirmed again without reserving anything.
+     *
+     * @param orderStockItems ordered items by order id
+     * @return availability of every ordered item by order id, in the same order
+     */
+    Map<String, List<ConfirmedOrderStockItem>> reserve(Map<String, List<OrderStockItem>> orderStockItems);
+
+    /**
+     * Commits the reservations of a paid order. Items without a pending reservation are removed from stock directly.
+     *
+     * @param orderId         order id
+     * @param orderStockItems ordered items
+     */
+    void commit(String orderId, List<OrderStockItem> orderStockItems);
+
+    /**
+     * Returns the reserved stock of a cancelled order.
+     *
+     * @param orderId order id
+     */
+    void release(String orderId);
+
+    /**
+     * Returns the stock of reservations that were not committed in time.
+     *
+     * @return number of released reservations
+     */
+    int releaseExpired();
+}
@@ -0,0 +1,209 @@
+package com.eshop.catalog.services;
+
+import com.eshop.catalog.config.CacheConfig;
+import com.eshop.catalog.integrationevents.events.ConfirmedOrderStockItem;
+import com.eshop.catalog.integrationevents.events.OrderStockItem;
+import com.eshop.catalog.model.CatalogItemRepository;
+import com.eshop.catalog.model.StockAdjustment;
+import com.eshop.catalog.model.StockReservation;
+import com.eshop.catalog.model.StockReservationRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Stock reservations backed by conditional updates of the available stock. A reservation removes its units from
+ * the available stock right away, so concurrent orders for the same item never read and write the stock
+ * separately and cannot oversell it.
+ * <p>
+ * Orders are reserved in batches: the items of all orders are locked and read with one query, the orders are
+ * served from that stock in memory, and the units reserved for each item are removed with one batch of updates.
+ * Items are always locked and updated in product id order, so that concurrent transactions cannot deadlock.
+ */
+@RequiredArgsConstructor
+@Service
+public class StockReservationServiceImpl implements StockReservationService {
+  private static final Logger logger = LoggerFactory.getLogger(StockReservationServiceImpl.class);
+
+  private final CatalogItemRepository catalogItemRepository;
+  private final StockReservationRepository stockReservationRepository;
+  private final CacheManager cacheManager;
+
+  @Value("${app.stock-reservation.ttl:PT30M}")
+  private Duration reservationTtl;
+
+  @Value("${app.stock-reservation.expiry-batch-size:500}")
+  private int expiryBatchSize;
+
+  @Override
+  @Transactional
+  public Map<String, List<ConfirmedOrderStockItem>> reserve(Map<String, List<OrderStockItem>> orderStockItems) {
+    var reservedOrderIds = stockReservationRepository.findOrderIdsByOrderIdIn(orderStockItems.keySet());
+    var availableStock = catalogItemRepository.lockAvailableStock(orderStockItems.entrySet().stream()
+        .filter(order -> !reservedOrderIds.contains(order.getKey()))
+        .flatMap(order -> order.getValue().stream())
+        .map(OrderStockItem::getProductId)
+        .collect(Collectors.toSet()));
+
+    var expiresAt = LocalDateTime.now().plus(reservationTtl);
+    var confirmedOrderStockItems = new LinkedHashMap<String, List<ConfirmedOrderStockItem>>();
+    var reservations = new ArrayList<StockReservation>();
+
+    orderStockItems.forEach((orderId, orderItems) -> {
+      if (reservedOrderIds.contains(orderId)) {
+        logger.info("Stock of order {} has already been reserved", orderId);
+        confirmedOrderStockItems.put(orderId, orderItems.stream()
+            .map(orderStockItem -> new ConfirmedOrderStockItem(orderStockItem.getProductId(), true))
+            .collect(Collectors.toList()));
+      } else {
+        confirmedOrderStockItems.put(orderId, reserve(orderId, orderItems, availableStock, expiresAt, reservations));
+      }
+    });
+
+    // The items are locked, so every update finds the stock that has been read
+    var adjustments = reservations.stream()
+        .collect(Collectors.groupingBy(StockReservation::getProductId, TreeMap::new,
+            Collectors.summingInt(StockReservation::getUnits)))
+        .entrySet().stream()
+        .map(reserved -> new StockAdjustment(reserved.getKey(), reserved.getValue()))
+        .collect(Collectors.toList());
+    var removed = catalogItemRepository.removeStock(adjustments);
+    if (Arrays.stream(removed).anyMatch(count -> count != 1)) {
+      throw new IllegalStateException("Stock of locked catalog items changed while reserving it");
+    }
+
+    stockReservationRepository.saveAll(reservations);
+    adjustments.forEach(adjustment -> evictItem(adjustment.productId()));
+    return confirmedOrderStockItems;
+  }
+
+  /**
+   * Serves one order from given available stock, which is reduced by what the order reserves.
+   * Items that do not exist are left out of the result and do not prevent the reservation.
+   */
+  private List<ConfirmedOrderStockItem> reserve(
+      String orderId,
+      List<OrderStockItem> orderStockItems,
+      Map<Long, Integer> availableStock,
+      LocalDateTime expiresAt,
+      List<StockReservation> reservations
+  ) {
+    var confirmedOrderStockItems = new ArrayList<ConfirmedOrderStockItem>();
+    var orderReservations = new ArrayList<StockReservation>();
+    var reservedUnits = new HashMap<Long, Integer>();
+
+    for (var orderStockItem : inProductOrder(orderStockItems)) {
+      var productId = orderStockItem.getProductId();
+      var units = orderStockItem.getUnits();
+
+      if (units <= 0) {
+        confirmedOrderStockItems.add(new ConfirmedOrderStockItem(productId, true));
+      } else if (availableStock.containsKey(productId)) {
+        var hasStock = availableStock.get(productId) - reservedUnits.getOrDefault(productId, 0) >= units;
+        if (hasStock) {
+          reservedUnits.merge(productId, units, Integer::sum);
+          orderReservations.add(new StockReservation(orderId, productId, units, expiresAt));
+        }
+        confirmedOrderStockItems.add(new ConfirmedOrderStockItem(productId, hasStock));
+      }
+    }
+
+    if (confirmedOrderStockItems.stream().allMatch(ConfirmedOrderStockItem::getHasStock)) {
+      reservedUnits.forEach((productId, units) -> availableStock.merge(productId, -units, Integer::sum));
+      reservations.addAll(orderReservations);
+    }
+    return confirmedOrderStockItems;
+  }
+
+  @Override
+  @Transactional
+  public void commit(String orderId, List<OrderStockItem> orderStockItems) {
+    var reservations = stockReservationRepository.findReservedByOrderId(orderId);
+    reservations.forEach(StockReservation::commit);
+
+    var reservedProductIds = reservations.stream()
+        .map(StockReservation::getProductId)
+        .collect(Collectors.toSet());
+
+    // Orders validated before reservations existed, or whose reservations have expired
+    var unreservedItems = inProductOrder(orderStockItems).stream()
+        .filter(orderStockItem -> !reservedProductIds.contains(orderStockItem.getProductId()))
+        .collect(Collectors.toList());
+    var removed = catalogItemRepository.removeStock(toAdjustments(unreservedItems));
+
+    for (var i = 0; i < unreservedItems.size(); i++) {
+      var productId = unreservedItems.get(i).getProductId();
+      if (removed[i] == 1) {
+        evictItem(productId);
+      } else {
+        logger.warn("Not enough stock of product {} for paid order {}", productId, orderId);
+      }
+    }
+  }
+
+  @Override
+  @Transactional
+  public void release(String orderId) {
+    var reservations = stockReservationRepository.findReservedByOrderId(orderId);
+    release(reservations);
+
+    if (!reservations.isEmpty()) {
+      logger.info("Released {} stock reservations of order {}", reservations.size(), orderId);
+    }
+  }
+
+  @Override
+  @Transactional
+  public int releaseExpired() {
+    var reservations = stockReservationRepository.findExpired(
+        LocalDateTime.now(),
+        PageRequest.of(0, expiryBatchSize)
+    );
+    release(reservations);
+    return reservations.size();
+  }
+
+  /**
+   * Releases given reservations, which must be in product id order.
+   */
+  private void release(List<StockReservation> reservations) {
+    reservations.forEach(StockReservation::release);
+    catalogItemRepository.addStock(reservations.stream()
+        .map(reservation -> new StockAdjustment(reservation.getProductId(), reservation.getUnits()))
+        .collect(Collectors.toList()));
+    reservations.forEach(reservation -> evictItem(reservation.getProductId()));
+  }
+
+  private List<StockAdjustment> toAdjustments(List<OrderStockItem> orderStockItems) {
+    return orderStockItems.stream()
+        .map(orderStockItem -> new StockAdjustment(orderStockItem.getProductId(), orderStockItem.getUnits()))
+        .collect(Collectors.toList());
+  }
+
+  private List<OrderStockItem> inProductOrder(List<OrderStockItem> orderStockItems) {
+    return orderStockItems.stream()
+        .sorted(Comparator.comparing(OrderStockItem::getProductId))
+        .collect(Collectors.toList());
+  }
+
+  private void evictItem(Long productId) {
+    cacheManager.getCache(CacheConfig.CATALOG_ITEMS).evict(productId);
+  }
+}
@@ -0,0 +1,8 @@
+-- Ids are allocated in blocks of 50 with the pooled-lo optimizer: every value returned by the sequence is the
+-- first id of a block, so entities can be inserted in batches without a sequence call each. Values taken with
+-- nextval directly remain unique, they just leave the rest of their block unused.
+alter sequence catalog_sequence
+    increment by 50;
+
+alter sequence stock_reservation_id_seq
+    increment by 50;
@@ -0,0 +1,14 @@
+-- Last time the instance running an import reported it alive; unfinished imports without a recent heartbeat
+-- belong to an instance that stopped and can never finish
+alter table catalog_import
+    add column updated_at timestamp;
+
+update catalog_import
+set updated_at = coalesce(finished_at, created_at);
+
+alter table catalog_import
+    alter column updated_at set not null;
+
+create index catalog_import_unfinished_idx
+    on catalog_import (updated_at)
+    where state in ('Pending', 'Running');
@@ -0,0 +1,33 @@
+-- Imports create missing brands and categories by name, concurrently on every replica. Existing duplicates are
+-- merged into the one with the lowest id before names are made unique.
+update catalog_item item
+set brand_id = kept.id
+from brand duplicate
+         join (select min(id) as id, name from brand group by name) kept on kept.name = duplicate.name
+where item.brand_id = duplicate.id
+  and duplicate.id <> kept.id;
+
+delete
+from brand duplicate
+    using brand kept
+where kept.name = duplicate.name
+  and kept.id < duplicate.id;
+
+create unique index brand_name_idx
+    on brand (name);
+
+update catalog_item item
+set category_id = kept.id
+from category duplicate
+         join (select min(id) as id, name from category group by name) kept on kept.name = duplicate.name
+where item.category_id = duplicate.id
+  and duplicate.id <> kept.id;
+
+delete
+from category duplicate
+    using category kept
+where kept.name = duplicate.name
+  and kept.id < duplicate.id;
+
+create unique index category_name_idx
+    on category (name);
@@ -0,0 +1,3 @@
+-- Failed entries are published again once their backoff elapsed
+alter table outbox
+    add column next_attempt_at timestamp;
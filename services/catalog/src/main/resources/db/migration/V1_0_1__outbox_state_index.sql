@@ -0,0 +1,3 @@
+-- Pending events are polled by state in creation order
+create index outbox_event_state_creation_time_idx
+    on outbox (event_state, creation_time);
@@ -0,0 +1,6 @@
+-- Instance that claimed an entry for publishing and until when it owns it
+alter table outbox
+    add column lease_owner varchar(255);
+
+alter table outbox
+    add column lease_expires_at timestamp;
@@ -0,0 +1,12 @@
+-- Event content is stored in binary form, existing JSON content is kept as UTF-8 bytes
+alter table outbox
+    alter column content type bytea using convert_to(content, 'UTF8');
+
+alter table outbox
+    add column event_type_version integer;
+
+alter table outbox_archive
+    alter column content type bytea using convert_to(content, 'UTF8');
+
+alter table outbox_archive
+    add column event_type_version integer;
@@ -0,0 +1,21 @@
+create table stock_reservation
+(
+    id         bigserial    not null,
+    order_id   varchar(255) not null,
+    product_id bigint       not null,
+    units      integer      not null,
+    state      varchar(255) not null,
+    created_at timestamp    not null,
+    expires_at timestamp    not null
+);
+
+alter table only stock_reservation
+    add constraint stock_reservation_pkey primary key (id);
+
+create index stock_reservation_order_id_idx
+    on stock_reservation (order_id);
+
+-- Only pending reservations are looked up by expiry
+create index stock_reservation_reserved_expires_at_idx
+    on stock_reservation (expires_at)
+    where state = 'Reserved';
@@ -0,0 +1,9 @@
+-- Catalog items are listed newest first, optionally filtered by brand and category
+create index catalog_item_brand_id_id_idx
+    on catalog_item (brand_id, id desc);
+
+create index catalog_item_category_id_id_idx
+    on catalog_item (category_id, id desc);
+
+create index catalog_item_brand_id_category_id_id_idx
+    on catalog_item (brand_id, category_id, id desc);
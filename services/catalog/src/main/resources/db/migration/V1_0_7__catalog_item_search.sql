@@ -0,0 +1,56 @@
+-- Trigram search over name, description, brand and category of catalog items
+create extension if not exists pg_trgm;
+
+alter table catalog_item
+    add column search_document text;
+
+create function catalog_item_search_document() returns trigger as
+$$
+begin
+    new.search_document := lower(concat_ws(' ',
+        new.name,
+        new.description,
+        (select b.name from brand b where b.id = new.brand_id),
+        (select c.name from category c where c.id = new.category_id)
+    ));
+    return new;
+end;
+$$ language plpgsql;
+
+-- Stock updates do not touch the searched columns and do not rebuild the document
+create trigger catalog_item_search_document_trg
+    before insert or update of name, description, brand_id, category_id, search_document
+    on catalog_item
+    for each row
+execute function catalog_item_search_document();
+
+-- Renamed brands and categories rebuild the documents of their items
+create function catalog_item_search_document_refresh() returns trigger as
+$$
+begin
+    if tg_table_name = 'brand' then
+        update catalog_item set search_document = null where brand_id = new.id;
+    else
+        update catalog_item set search_document = null where category_id = new.id;
+    end if;
+    return null;
+end;
+$$ language plpgsql;
+
+create trigger brand_search_document_trg
+    after update of name
+    on brand
+    for each row
+execute function catalog_item_search_document_refresh();
+
+create trigger category_search_document_trg
+    after update of name
+    on category
+    for each row
+execute function catalog_item_search_document_refresh();
+
+update catalog_item
+set search_document = null;
+
+create index catalog_item_search_document_trgm_idx
+    on catalog_item using gin (search_document gin_trgm_ops);
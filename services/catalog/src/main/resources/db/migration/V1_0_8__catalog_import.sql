@@ -0,0 +1,24 @@
+-- Supplier stock keeping unit, the key of items in bulk imports
+alter table catalog_item
+    add column sku varchar(64);
+
+create unique index catalog_item_sku_idx
+    on catalog_item (sku);
+
+create table catalog_import
+(
+    id              uuid         not null,
+    format          varchar(255) not null,
+    state           varchar(255) not null,
+    processed_items bigint       not null,
+    inserted_items  bigint       not null,
+    updated_items   bigint       not null,
+    rejected_items  bigint       not null,
+    changed_prices  bigint       not null,
+    error           text,
+    created_at      timestamp    not null,
+    finished_at     timestamp
+);
+
+alter table only catalog_import
+    add constraint catalog_import_pkey primary key (id);
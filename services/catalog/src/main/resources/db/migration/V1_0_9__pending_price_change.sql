@@ -0,0 +1,15 @@
+-- Price changes waiting to be published. There is one row per product, so that repeated changes of a product
+-- are merged into a single change from its first old price to its last new price.
+create table pending_price_change
+(
+    product_id bigint         not null,
+    old_price  numeric(19, 2) not null,
+    new_price  numeric(19, 2) not null,
+    changed_at timestamp      not null
+);
+
+alter table only pending_price_change
+    add constraint pending_price_change_pkey primary key (product_id);
+
+create index pending_price_change_changed_at_idx
+    on pending_price_change (changed_at);
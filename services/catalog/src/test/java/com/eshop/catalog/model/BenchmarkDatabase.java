@@ -0,0 +1,58 @@
+package com.eshop.catalog.model;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Catalog database of the benchmarks, migrated by Flyway. Postgres is started with Testcontainers, unless an
+ * existing empty database is given with the <code>benchmark.postgres.url</code>, <code>.user</code> and
+ * <code>.password</code> system properties. JMH passes them to its forks with <code>-jvmArgsAppend</code>.
+ */
+class BenchmarkDatabase implements AutoCloseable {
+  private final PostgreSQLContainer<?> postgres;
+  private final String url;
+  private final String user;
+  private final String password;
+
+  BenchmarkDatabase() {
+    var existingUrl = System.getProperty("benchmark.postgres.url");
+    if (existingUrl != null) {
+      postgres = null;
+      url = existingUrl;
+      user = System.getProperty("benchmark.postgres.user", "postgres");
+      password = System.getProperty("benchmark.postgres.password", "");
+    } else {
+      postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:13-alpine"));
+      postgres.start();
+      url = postgres.getJdbcUrl();
+      user = postgres.getUsername();
+      password = postgres.getPassword();
+    }
+
+    Flyway.configure().dataSource(url, user, password).load().migrate();
+  }
+
+  /**
+   * Returns a pool of connections to the database.
+   *
+   * @param urlParameters driver parameters added to the URL, e.g. <code>reWriteBatchedInserts=true</code>
+   */
+  HikariDataSource dataSource(String... urlParameters) {
+    var dataSource = new HikariDataSource();
+    dataSource.setJdbcUrl(urlParameters.length == 0
+        ? url
+        : url + (url.contains("?") ? "&" : "?") + String.join("&", urlParameters));
+    dataSource.setUsername(user);
+    dataSource.setPassword(password);
+    return dataSource;
+  }
+
+  @Override
+  public void close() {
+    if (postgres != null) {
+      postgres.stop();
+    }
+  }
+}
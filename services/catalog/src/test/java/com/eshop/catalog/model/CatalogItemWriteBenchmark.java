@@ -0,0 +1,227 @@
+package com.eshop.catalog.model;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the throughput of catalog writes sent row by row, with a sequence call per new item, with the same
+ * writes sent in JDBC batches of {@link #BATCH_SIZE}, with ids allocated in blocks of
+ * {@link AbstractEntity#ID_ALLOCATION_SIZE} and inserts rewritten into multi-row statements by the driver.
+ * Every operation writes one transaction.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CatalogItemWriteBenchmark {
+  // Same as the Hibernate batch size of the catalog
+  private static final int BATCH_SIZE = 50;
+  private static final int STOCK_ITEM_COUNT = 1000;
+
+  private static final String INSERT_ITEM = """
+      insert into catalog_item (id, sku, name, description, price, picture_file_name, available_stock,
+                                restock_threshold, max_stock_threshold, on_reorder, brand_id, category_id)
+      values (?, ?, ?, ?, ?, ?, ?, ?, ?, false, ?, ?)
+      """;
+  private static final String ADD_STOCK = "update catalog_item set available_stock = available_stock + ? where id = ?";
+
+  @Param({"100", "1000"})
+  private int itemCount;
+
+  private BenchmarkDatabase database;
+  private HikariDataSource rowByRowDataSource;
+  private HikariDataSource batchDataSource;
+  private Connection rowByRowConnection;
+  private Connection batchConnection;
+  private long brandId;
+  private long categoryId;
+  private List<Long> stockItemIds;
+  private long nextSku;
+
+  @Setup
+  public void setUp() throws SQLException {
+    database = new BenchmarkDatabase();
+    rowByRowDataSource = database.dataSource();
+    batchDataSource = database.dataSource("reWriteBatchedInserts=true");
+    rowByRowConnection = rowByRowDataSource.getConnection();
+    rowByRowConnection.setAutoCommit(false);
+    batchConnection = batchDataSource.getConnection();
+    batchConnection.setAutoCommit(false);
+
+    brandId = insertNamed("brand", "Benchmark brand");
+    categoryId = insertNamed("category", "Benchmark category");
+    stockItemIds = new ArrayList<>(STOCK_ITEM_COUNT);
+    insertInBatches(STOCK_ITEM_COUNT, stockItemIds);
+  }
+
+  /**
+   * Removes the items inserted by the iteration, so that every iteration starts with the same table.
+   */
+  @TearDown(Level.Iteration)
+  public void removeInsertedItems() throws SQLException {
+    try (var delete = batchConnection.prepareStatement("delete from catalog_item where sku like 'insert-%'")) {
+      delete.executeUpdate();
+    }
+    batchConnection.commit();
+    try (var vacuum = batchDataSource.getConnection(); var statement = vacuum.createStatement()) {
+      statement.execute("vacuum analyze catalog_item");
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws SQLException {
+    try (var delete = batchConnection.prepareStatement("delete from catalog_item where sku like 'stock-%'")) {
+      delete.executeUpdate();
+    }
+    batchConnection.commit();
+    rowByRowConnection.close();
+    batchConnection.close();
+    rowByRowDataSource.close();
+    batchDataSource.close();
+    database.close();
+  }
+
+  @Benchmark
+  public int insertRowByRow() throws SQLException {
+    try (var nextId = rowByRowConnection.prepareStatement("select nextval('catalog_sequence')");
+         var insert = rowByRowConnection.prepareStatement(INSERT_ITEM)) {
+      for (var i = 0; i < itemCount; i++) {
+        try (var id = nextId.executeQuery()) {
+          id.next();
+          bindItem(insert, id.getLong(1), "insert-" + nextSku++);
+        }
+        insert.executeUpdate();
+      }
+    }
+    rowByRowConnection.commit();
+    return itemCount;
+  }
+
+  @Benchmark
+  public int insertInBatches() throws SQLException {
+    insertInBatches(itemCount, null);
+    return itemCount;
+  }
+
+  @Benchmark
+  public int addStockRowByRow() throws SQLException {
+    try (var update = rowByRowConnection.prepareStatement(ADD_STOCK)) {
+      for (var i = 0; i < itemCount; i++) {
+        update.setInt(1, 1);
+        update.setLong(2, stockItemIds.get(i % STOCK_ITEM_COUNT));
+        update.executeUpdate();
+      }
+    }
+    rowByRowConnection.commit();
+    return itemCount;
+  }
+
+  @Benchmark
+  public int addStockInBatches() throws SQLException {
+    try (var update = batchConnection.prepareStatement(ADD_STOCK)) {
+      for (var i = 0; i < itemCount; i++) {
+        update.setInt(1, 1);
+        update.setLong(2, stockItemIds.get(i % STOCK_ITEM_COUNT));
+        update.addBatch();
+        if ((i + 1) % BATCH_SIZE == 0) {
+          update.executeBatch();
+        }
+      }
+      update.executeBatch();
+    }
+    batchConnection.commit();
+    return itemCount;
+  }
+
+  /**
+   * Inserts items in batches, taking their ids in blocks like the pooled-lo optimizer of the entities.
+   *
+   * @param insertedIds receives the ids of the items, if not null
+   */
+  private void insertInBatches(int count, List<Long> insertedIds) throws SQLException {
+    var skuPrefix = insertedIds != null ? "stock-" : "insert-";
+    var ids = allocateIds(count);
+
+    try (var insert = batchConnection.prepareStatement(INSERT_ITEM)) {
+      for (var i = 0; i < count; i++) {
+        bindItem(insert, ids.get(i), skuPrefix + nextSku++);
+        insert.addBatch();
+        if ((i + 1) % BATCH_SIZE == 0) {
+          insert.executeBatch();
+        }
+      }
+      insert.executeBatch();
+    }
+    batchConnection.commit();
+
+    if (insertedIds != null) {
+      insertedIds.addAll(ids);
+    }
+  }
+
+  private List<Long> allocateIds(int count) throws SQLException {
+    var ids = new ArrayList<Long>(count);
+    var blocks = (count + AbstractEntity.ID_ALLOCATION_SIZE - 1) / AbstractEntity.ID_ALLOCATION_SIZE;
+
+    try (var nextIds = batchConnection.prepareStatement(
+        "select nextval('catalog_sequence') from generate_series(1, ?)")) {
+      nextIds.setInt(1, blocks);
+      try (var firstIds = nextIds.executeQuery()) {
+        while (firstIds.next()) {
+          var firstId = firstIds.getLong(1);
+          for (var i = 0; i < AbstractEntity.ID_ALLOCATION_SIZE && ids.size() < count; i++) {
+            ids.add(firstId + i);
+          }
+        }
+      }
+    }
+    return ids;
+  }
+
+  private void bindItem(PreparedStatement insert, long id, String sku) throws SQLException {
+    insert.setLong(1, id);
+    insert.setString(2, sku);
+    insert.setString(3, "Item " + sku);
+    insert.setString(4, "Description of item " + sku);
+    insert.setBigDecimal(5, BigDecimal.valueOf(1999, 2));
+    insert.setString(6, sku + ".png");
+    insert.setInt(7, 100);
+    insert.setInt(8, 10);
+    insert.setInt(9, 200);
+    insert.setLong(10, brandId);
+    insert.setLong(11, categoryId);
+  }
+
+  private long insertNamed(String table, String name) throws SQLException {
+    var insertSql = "insert into %s (id, name) values (nextval('catalog_sequence'), ?) on conflict (name) do nothing";
+    try (var insert = batchConnection.prepareStatement(insertSql.formatted(table));
+         var select = batchConnection.prepareStatement("select id from %s where name = ?".formatted(table))) {
+      insert.setString(1, name);
+      insert.executeUpdate();
+      select.setString(1, name);
+      try (var id = select.executeQuery()) {
+        id.next();
+        var existingId = id.getLong(1);
+        batchConnection.commit();
+        return existingId;
+      }
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(CatalogItemWriteBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -0,0 +1,146 @@
+package com.eshop.catalog.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Compares reading and serializing a page of the catalog listing as entities, whose brand and category are loaded
+ * by queries of their own, with reading it as views of a single query. Both run in a read-only transaction, like
+ * the repositories did before. Run with <code>-prof gc</code> to compare allocations too.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CatalogListingBenchmark {
+  private static final int BRAND_COUNT = 20;
+  private static final int CATEGORY_COUNT = 20;
+  private static final int ITEM_COUNT = 10_000;
+  private static final int PAGE_COUNT = 20;
+
+  @Param({"10", "50"})
+  private int pageSize;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private BenchmarkDatabase database;
+  private HikariDataSource dataSource;
+  private EntityManagerFactory entityManagerFactory;
+  private int page;
+
+  @Setup
+  public void setUp() throws Exception {
+    database = new BenchmarkDatabase();
+    dataSource = database.dataSource();
+    seed();
+
+    var factory = new LocalContainerEntityManagerFactoryBean();
+    factory.setDataSource(dataSource);
+    factory.setPackagesToScan(CatalogItem.class.getPackageName());
+    factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+    factory.setJpaPropertyMap(Map.of(
+        "hibernate.physical_naming_strategy",
+        "org.springframework.boot.orm.jpa.hibernate.SpringPhysicalNamingStrategy"
+    ));
+    factory.afterPropertiesSet();
+    entityManagerFactory = factory.getObject();
+  }
+
+  @TearDown
+  public void tearDown() {
+    entityManagerFactory.close();
+    dataSource.close();
+    database.close();
+  }
+
+  @Benchmark
+  public byte[] listEntities() throws Exception {
+    var items = inReadOnlyTransaction(entityManager -> entityManager
+        .createQuery("select i from CatalogItem i order by i.id desc", CatalogItem.class)
+        .setFirstResult(nextOffset())
+        .setMaxResults(pageSize)
+        .getResultList());
+    return objectMapper.writeValueAsBytes(items);
+  }
+
+  @Benchmark
+  public byte[] listViews() throws Exception {
+    var items = inReadOnlyTransaction(entityManager -> entityManager
+        .createQuery(CatalogItemRepository.VIEW_SELECT + "order by i.id desc", CatalogItemView.class)
+        .setFirstResult(nextOffset())
+        .setMaxResults(pageSize)
+        .getResultList());
+    return objectMapper.writeValueAsBytes(items);
+  }
+
+  private int nextOffset() {
+    page = (page + 1) % PAGE_COUNT;
+    return page * pageSize;
+  }
+
+  /**
+   * Runs given query the way a read-only Spring transaction does: without dirty checking and flushing.
+   */
+  private <T> T inReadOnlyTransaction(Function<EntityManager, T> query) {
+    var entityManager = entityManagerFactory.createEntityManager();
+    try {
+      var session = entityManager.unwrap(Session.class);
+      session.setDefaultReadOnly(true);
+      session.setHibernateFlushMode(FlushMode.MANUAL);
+
+      entityManager.getTransaction().begin();
+      var result = query.apply(entityManager);
+      entityManager.getTransaction().commit();
+      return result;
+    } finally {
+      entityManager.close();
+    }
+  }
+
+  /**
+   * Adds brands, categories and items, unless a previous trial has added them already.
+   */
+  private void seed() throws Exception {
+    try (var connection = dataSource.getConnection(); var statement = connection.createStatement()) {
+      statement.execute("""
+          insert into brand (id, name)
+          select nextval('catalog_sequence'), 'Brand ' || n from generate_series(1, %d) n
+          on conflict do nothing
+          """.formatted(BRAND_COUNT));
+      statement.execute("""
+          insert into category (id, name)
+          select nextval('catalog_sequence'), 'Category ' || n from generate_series(1, %d) n
+          on conflict do nothing
+          """.formatted(CATEGORY_COUNT));
+      statement.execute("""
+          insert into catalog_item (id, sku, name, description, price, picture_file_name, available_stock,
+                                    restock_threshold, max_stock_threshold, on_reorder, brand_id, category_id)
+          select nextval('catalog_sequence'), 'sku-' || n, 'Catalog item ' || n, 'Description of catalog item ' || n,
+                 10 + n %% 90, n || '.png', 100, 10, 200, false,
+                 (select id from brand order by id offset n %% %d limit 1),
+                 (select id from category order by id offset n %% %d limit 1)
+          from generate_series(1, %d) n
+          on conflict do nothing
+          """.formatted(BRAND_COUNT, CATEGORY_COUNT, ITEM_COUNT));
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(CatalogListingBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -1,10 +1,14 @@
 package com.eshop.graceperiodtask.config;
 
 import com.eshop.shared.eventhandling.IntegrationEvent;
+import com.eshop.shared.eventhandling.codec.IntegrationEventFormat;
+import com.eshop.shared.eventhandling.kafka.IntegrationEventMessageConverter;
+import com.eshop.shared.eventhandling.kafka.IntegrationEventSerializer;
 import lombok.RequiredArgsConstructor;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -15,10 +19,8 @@ import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.kafka.listener.SeekToCurrentErrorHandler;
 import org.springframework.kafka.support.converter.RecordMessageConverter;
-import org.springframework.kafka.support.converter.StringJsonMessageConverter;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
-import org.springframework.kafka.support.serializer.JsonSerializer;
 import org.springframework.util.backoff.FixedBackOff;
 
 import java.util.HashMap;
@@ -31,6 +33,9 @@ public class KafkaConfig {
   private final KafkaProperties kafkaProperties;
   private final KafkaTopics topics;
 
+  @Value("${app.kafka.event-format}")
+  private IntegrationEventFormat eventFormat;
+
   // Producer
   @Bean
   public SeekToCurrentErrorHandler errorHandler(
@@ -55,7 +60,8 @@ public class KafkaConfig {
   public Map<String, Object> producerConfigs() {
     var props = new HashMap<>(kafkaProperties.buildProducerProperties());
     props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-    props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+    props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, IntegrationEventSerializer.class);
+    props.put(IntegrationEventSerializer.FORMAT_CONFIG, eventFormat);
     return props;
   }
 
@@ -72,7 +78,7 @@ public class KafkaConfig {
   // Consumer
   @Bean
   public RecordMessageConverter converter() {
-    return new StringJsonMessageConverter();
+    return new IntegrationEventMessageConverter();
   }
 
   // Topics
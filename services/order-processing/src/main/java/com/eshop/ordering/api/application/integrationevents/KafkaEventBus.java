@@ -9,6 +9,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletableFuture;
+
 @RequiredArgsConstructor
 @Component
 public class KafkaEventBus implements IntegrationEventPublisher {
@@ -17,9 +19,12 @@ public class KafkaEventBus implements IntegrationEventPublisher {
   private final KafkaTemplate<String, IntegrationEvent> kafkaTemplate;
 
   @Override
-  public void publish(IntegrationEventLogEntry eventLogEntry) {
+  public CompletableFuture<Void> publish(IntegrationEventLogEntry eventLogEntry) {
     var event = eventLogEntry.getEvent();
     logger.info("Publishing integration event: {} ({})", event.getId(), event.getClass().getSimpleName());
-    kafkaTemplate.send(eventLogEntry.getTopic(), event);
+    return kafkaTemplate.send(eventLogEntry.getTopic(), event)
+        .completable()
+        .thenAccept(sendResult -> logger.debug("Integration event {} acknowledged at offset {}",
+            event.getId(), sendResult.getRecordMetadata().offset()));
   }
 }
@@ -1,10 +1,14 @@
 package com.eshop.ordering.config;
 
 import com.eshop.shared.eventhandling.IntegrationEvent;
+import com.eshop.shared.eventhandling.codec.IntegrationEventFormat;
+import com.eshop.shared.eventhandling.kafka.IntegrationEventMessageConverter;
+import com.eshop.shared.eventhandling.kafka.IntegrationEventSerializer;
 import lombok.RequiredArgsConstructor;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -19,8 +23,6 @@ import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.kafka.listener.LoggingErrorHandler;
 import org.springframework.kafka.listener.SeekToCurrentErrorHandler;
 import org.springframework.kafka.support.converter.RecordMessageConverter;
-import org.springframework.kafka.support.converter.StringJsonMessageConverter;
-import org.springframework.kafka.support.serializer.JsonSerializer;
 import org.springframework.util.backoff.FixedBackOff;
 import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
 
@@ -36,6 +38,9 @@ public class KafkaConfig implements KafkaListenerConfigurer {
   private final KafkaTopics topics;
   private final LocalValidatorFactoryBean validator;
 
+  @Value("${app.kafka.event-format}")
+  private IntegrationEventFormat eventFormat;
+
   @Override
   public void configureKafkaListeners(KafkaListenerEndpointRegistrar registrar) {
     registrar.setValidator(validator);
@@ -70,7 +75,8 @@ public class KafkaConfig implements KafkaListenerConfigurer {
   public Map<String, Object> producerConfigs() {
     var props = new HashMap<>(kafkaProperties.buildProducerProperties());
     props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-    props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+    props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, IntegrationEventSerializer.class);
+    props.put(IntegrationEventSerializer.FORMAT_CONFIG, eventFormat);
     return props;
   }
 
@@ -88,7 +94,7 @@ public class KafkaConfig implements KafkaListenerConfigurer {
 
   @Bean
   public RecordMessageConverter converter() {
-    return new StringJsonMessageConverter();
+    return new IntegrationEventMessageConverter();
   }
 
   // Topics
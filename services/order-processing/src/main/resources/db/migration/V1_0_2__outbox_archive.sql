@@ -0,0 +1,15 @@
+-- Published outbox entries moved out of the outbox table, partitioned by month of creation.
+-- Monthly partitions are created by the outbox retention processor.
+create table outbox_archive
+(
+    id              integer not null,
+    content         text,
+    creation_time   timestamp,
+    event_id        uuid,
+    event_state     varchar(255),
+    event_type_name varchar(255),
+    times_sent      integer,
+    topic           varchar(255)
+) partition by range (creation_time);
+
+create table outbox_archive_default partition of outbox_archive default;
@@ -0,0 +1,107 @@
+package com.eshop.ordering.api.application.integrationevents;
+
+import com.eshop.ordering.api.application.integrationevents.events.*;
+import com.eshop.ordering.api.application.integrationevents.events.models.OrderStockItem;
+import com.eshop.shared.eventhandling.IntegrationEvent;
+import com.eshop.shared.eventhandling.codec.IntegrationEventFormat;
+import com.eshop.shared.eventhandling.codec.IntegrationEventTypeRegistry;
+import com.eshop.shared.eventhandling.codec.JacksonIntegrationEventCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares decoding a page of outbox entries with the type registry and the cached readers of the codec, in both
+ * formats, with the former decoding, which loaded the class of every entry by name and read its JSON with a generic
+ * mapper. Entries hold the events order processing publishes through its outbox, in turn.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OutboxEventDecodingBenchmark {
+  // Default outbox batch size
+  private static final int PAGE_SIZE = 100;
+
+  @Param({"JSON", "SMILE"})
+  private IntegrationEventFormat format;
+
+  private final ObjectMapper legacyObjectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+  private final IntegrationEventTypeRegistry registry = new IntegrationEventTypeRegistry();
+  private JacksonIntegrationEventCodec codec;
+
+  private List<LegacyEntry> legacyEntries;
+  private List<Entry> entries;
+
+  @Setup
+  public void setUp() throws Exception {
+    codec = new JacksonIntegrationEventCodec(format);
+    var events = events();
+
+    legacyEntries = new ArrayList<>(PAGE_SIZE);
+    entries = new ArrayList<>(PAGE_SIZE);
+    for (var i = 0; i < PAGE_SIZE; i++) {
+      var event = events.get(i % events.size());
+      var type = event.getClass();
+      legacyEntries.add(new LegacyEntry(type.getName(), legacyObjectMapper.writeValueAsString(event)));
+      entries.add(new Entry(registry.nameOf(type), registry.versionOf(type), codec.encode(event)));
+    }
+  }
+
+  @Benchmark
+  public List<IntegrationEvent> decodeWithRegistry() {
+    var events = new ArrayList<IntegrationEvent>(entries.size());
+    for (var entry : entries) {
+      events.add(codec.decode(entry.content(), registry.resolve(entry.typeName(), entry.typeVersion())));
+    }
+    return events;
+  }
+
+  @Benchmark
+  public List<IntegrationEvent> decodeByClassName() throws Exception {
+    var events = new ArrayList<IntegrationEvent>(legacyEntries.size());
+    for (var entry : legacyEntries) {
+      events.add((IntegrationEvent) legacyObjectMapper.readValue(entry.content(), Class.forName(entry.typeName())));
+    }
+    return events;
+  }
+
+  private static List<IntegrationEvent> events() {
+    var stockItems = List.of(new OrderStockItem(1L, 2), new OrderStockItem(2L, 1), new OrderStockItem(3L, 5));
+    var orderItems = List.of(
+        new OrderStatusChangedToSubmittedIntegrationEvent.OrderItemDto("1", ".NET Bot Black Hoodie", 19.5, 2),
+        new OrderStatusChangedToSubmittedIntegrationEvent.OrderItemDto("2", ".NET Black & White Mug", 8.5, 1),
+        new OrderStatusChangedToSubmittedIntegrationEvent.OrderItemDto("3", "Prism White T-Shirt", 12.0, 5)
+    );
+    var orderId = "4f8c2b6e-8a3d-4f7e-9c55-1d2e3f4a5b6c";
+
+    return List.of(
+        new OrderStartedIntegrationEvent("user-1"),
+        new OrderStatusChangedToSubmittedIntegrationEvent(orderId, "Submitted", "buyer", 107.5, orderItems),
+        new OrderStatusChangedToAwaitingValidationIntegrationEvent(orderId, "AwaitingValidation", "buyer", stockItems),
+        new OrderStatusChangedToStockConfirmedIntegrationEvent(orderId, "StockConfirmed", "buyer"),
+        new OrderStatusChangedToPaidIntegrationEvent(orderId, "Paid", "buyer", stockItems),
+        new OrderStatusChangedToShippedIntegrationEvent(orderId, "Shipped", "buyer"),
+        new OrderStatusChangedToCancelledIntegrationEvent(orderId, "Cancelled", "buyer")
+    );
+  }
+
+  private record LegacyEntry(String typeName, String content) {
+  }
+
+  private record Entry(String typeName, int typeVersion, byte[] content) {
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(OutboxEventDecodingBenchmark.class.getSimpleName()).build()).run();
+  }
+}
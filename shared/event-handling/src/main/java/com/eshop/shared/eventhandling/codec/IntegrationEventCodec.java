@@ -0,0 +1,15 @@
+package com.eshop.shared.eventhandling.codec;
+
+import java.lang.reflect.Type;
+
+/**
+ * Converts integration events to bytes and back. Implementations always read every format they can write,
+ * so the written format can be changed without breaking readers of already stored or sent events.
+ */
+public interface IntegrationEventCodec {
+  byte[] encode(Object event);
+
+  <T> T decode(byte[] content, Class<T> type);
+
+  Object decode(byte[] content, Type type);
+}
@@ -0,0 +1,15 @@
+package com.eshop.shared.eventhandling.codec;
+
+/**
+ * Wire formats supported by {@link JacksonIntegrationEventCodec}.
+ */
+public enum IntegrationEventFormat {
+  /**
+   * Plain JSON text, readable by every consumer.
+   */
+  JSON,
+  /**
+   * Jackson Smile, a compact binary encoding of the JSON data model.
+   */
+  SMILE
+}
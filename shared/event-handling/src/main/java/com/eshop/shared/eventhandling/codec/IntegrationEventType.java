@@ -0,0 +1,22 @@
+package com.eshop.shared.eventhandling.codec;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Names and versions an integration event in the {@link IntegrationEventTypeRegistry}. Events without this
+ * annotation are registered with their simple class name and version 1.
+ * <p>
+ * Increment the version when the event shape changes in a way readers have to know about. Stored events are read
+ * with the class of their own version, so keep the previous class, under the same name and with its old version,
+ * until its stored events have been published.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface IntegrationEventType {
+  String name() default "";
+
+  int version() default 1;
+}
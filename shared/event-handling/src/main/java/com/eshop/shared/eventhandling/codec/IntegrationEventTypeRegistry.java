@@ -0,0 +1,92 @@
+package com.eshop.shared.eventhandling.codec;
+
+import com.eshop.shared.eventhandling.IntegrationEvent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps integration event classes to stable, versioned type names, so that stored events do not depend on
+ * class names and packages. Stored events are read with the class registered for both their name and version,
+ * so the class of an older version can be kept next to the current one until its events have been read.
+ * <p>
+ * Classes loaded for legacy, fully qualified names are cached as well, up to a fixed number of names.
+ */
+public class IntegrationEventTypeRegistry {
+  private static final int MAX_LEGACY_TYPES = 256;
+
+  private final Map<String, Class<? extends IntegrationEvent>> typesByNameAndVersion = new ConcurrentHashMap<>();
+  private final Map<String, Class<? extends IntegrationEvent>> legacyTypesByClassName = new ConcurrentHashMap<>();
+
+  public void register(Class<? extends IntegrationEvent> type) {
+    var name = typeName(type);
+    var version = versionOf(type);
+    var registered = typesByNameAndVersion.putIfAbsent(key(name, version), type);
+
+    if (registered != null && !registered.equals(type)) {
+      throw new IllegalStateException("Integration event type %s version %d is used by both %s and %s"
+          .formatted(name, version, registered.getName(), type.getName()));
+    }
+  }
+
+  /**
+   * Returns the type name of the given event class, registering the class if needed.
+   */
+  public String nameOf(Class<? extends IntegrationEvent> type) {
+    register(type);
+    return typeName(type);
+  }
+
+  public int versionOf(Class<? extends IntegrationEvent> type) {
+    var annotation = type.getAnnotation(IntegrationEventType.class);
+    return annotation != null ? annotation.version() : 1;
+  }
+
+  /**
+   * Returns the event class registered under the given name and version. Events stored without a version are
+   * read as version 1. Names that are fully qualified class names, as stored before the registry existed, are
+   * loaded directly.
+   *
+   * @throws IllegalArgumentException if no class is registered under the given name and version
+   */
+  public Class<? extends IntegrationEvent> resolve(String name, Integer version) {
+    var effectiveVersion = version != null ? version : 1;
+    var type = typesByNameAndVersion.get(key(name, effectiveVersion));
+    if (type != null) {
+      return type;
+    }
+
+    if (name.contains(".")) {
+      return loadLegacyType(name);
+    }
+
+    throw new IllegalArgumentException("Unknown integration event type: %s version %d"
+        .formatted(name, effectiveVersion));
+  }
+
+  private Class<? extends IntegrationEvent> loadLegacyType(String className) {
+    var cached = legacyTypesByClassName.get(className);
+    if (cached != null) {
+      return cached;
+    }
+
+    try {
+      var type = Class.forName(className).asSubclass(IntegrationEvent.class);
+      if (legacyTypesByClassName.size() < MAX_LEGACY_TYPES) {
+        legacyTypesByClassName.putIfAbsent(className, type);
+      }
+      return type;
+    } catch (ClassNotFoundException e) {
+      throw new IllegalArgumentException("Unknown integration event type: %s".formatted(className), e);
+    }
+  }
+
+  private static String key(String name, int version) {
+    return name + ":" + version;
+  }
+
+  private static String typeName(Class<? extends IntegrationEvent> type) {
+    var annotation = type.getAnnotation(IntegrationEventType.class);
+    return annotation != null && !annotation.name().isEmpty() ? annotation.name() : type.getSimpleName();
+  }
+}
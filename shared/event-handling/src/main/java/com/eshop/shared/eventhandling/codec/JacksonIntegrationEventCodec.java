@@ -0,0 +1,106 @@
+package com.eshop.shared.eventhandling.codec;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.smile.SmileConstants;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Codec that writes events either as JSON or as Smile and reads both. Smile content is recognized by its header,
+ * anything else is read as JSON.
+ * <p>
+ * Readers are built once per event type and cached. The cache is bounded, types beyond the limit are still
+ * decoded but get a new reader every time.
+ */
+public class JacksonIntegrationEventCodec implements IntegrationEventCodec {
+  public static final int DEFAULT_MAX_CACHED_TYPES = 256;
+
+  private final ObjectMapper jsonMapper;
+  private final ObjectMapper smileMapper;
+  private final ObjectMapper writer;
+  private final int maxCachedTypes;
+  private final Map<Type, Readers> readers = new ConcurrentHashMap<>();
+
+  public JacksonIntegrationEventCodec(IntegrationEventFormat format) {
+    this(format, DEFAULT_MAX_CACHED_TYPES);
+  }
+
+  public JacksonIntegrationEventCodec(IntegrationEventFormat format, int maxCachedTypes) {
+    this.jsonMapper = configure(new ObjectMapper());
+    this.smileMapper = configure(new SmileMapper());
+    this.writer = format == IntegrationEventFormat.SMILE ? smileMapper : jsonMapper;
+    this.maxCachedTypes = maxCachedTypes;
+  }
+
+  @Override
+  public byte[] encode(Object event) {
+    try {
+      return writer.writeValueAsBytes(event);
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException("Cannot encode %s".formatted(event.getClass().getSimpleName()), e);
+    }
+  }
+
+  @Override
+  public <T> T decode(byte[] content, Class<T> type) {
+    return type.cast(decode(content, (Type) type));
+  }
+
+  @Override
+  public Object decode(byte[] content, Type type) {
+    try {
+      return readersFor(type).forContent(content).readValue(content);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot decode %s".formatted(type.getTypeName()), e);
+    }
+  }
+
+  private Readers readersFor(Type type) {
+    var cached = readers.get(type);
+    if (cached != null) {
+      return cached;
+    }
+
+    var created = new Readers(
+        jsonMapper.readerFor(jsonMapper.constructType(type)),
+        smileMapper.readerFor(smileMapper.constructType(type))
+    );
+    if (readers.size() < maxCachedTypes) {
+      readers.putIfAbsent(type, created);
+    }
+    return created;
+  }
+
+  private static boolean isSmile(byte[] content) {
+    return content.length >= 3
+        && content[0] == SmileConstants.HEADER_BYTE_1
+        && content[1] == SmileConstants.HEADER_BYTE_2
+        && content[2] == SmileConstants.HEADER_BYTE_3;
+  }
+
+  /**
+   * Same settings as the JSON mapper used by Spring Kafka, so that both formats map events identically.
+   */
+  private static ObjectMapper configure(ObjectMapper mapper) {
+    return mapper
+        .configure(MapperFeature.DEFAULT_VIEW_INCLUSION, false)
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+        .registerModule(new JavaTimeModule());
+  }
+
+  private record Readers(ObjectReader json, ObjectReader smile) {
+    ObjectReader forContent(byte[] content) {
+      return isSmile(content) ? smile : json;
+    }
+  }
+}
@@ -0,0 +1,28 @@
+package com.eshop.shared.eventhandling.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.converter.BatchMessagingMessageConverter;
+
+import java.lang.reflect.Type;
+
+/**
+ * Batch converter for <code>@KafkaListener</code> methods that receive a list of integration events. A record
+ * that cannot be converted fails the batch with a {@link BatchListenerFailedException} naming that record, so that
+ * the batch error handler can recover it instead of retrying the whole batch.
+ */
+public class IntegrationEventBatchMessageConverter extends BatchMessagingMessageConverter {
+
+  public IntegrationEventBatchMessageConverter() {
+    super(new IntegrationEventMessageConverter());
+  }
+
+  @Override
+  protected Object convert(ConsumerRecord<?, ?> record, Type type) {
+    try {
+      return super.convert(record, type);
+    } catch (RuntimeException e) {
+      throw new BatchListenerFailedException("Record cannot be converted", e, record);
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package com.eshop.shared.eventhandling.kafka;
+
+import com.eshop.shared.eventhandling.codec.IntegrationEventCodec;
+import com.eshop.shared.eventhandling.codec.IntegrationEventFormat;
+import com.eshop.shared.eventhandling.codec.JacksonIntegrationEventCodec;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.utils.Bytes;
+import org.springframework.kafka.support.KafkaNull;
+import org.springframework.kafka.support.converter.MessagingMessageConverter;
+
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Record converter for <code>@KafkaListener</code> methods that converts the record value to the listener
+ * parameter type. Both JSON and Smile values are accepted, so producers can switch formats independently
+ * of their consumers.
+ */
+public class IntegrationEventMessageConverter extends MessagingMessageConverter {
+  private final IntegrationEventCodec codec = new JacksonIntegrationEventCodec(IntegrationEventFormat.JSON);
+
+  @Override
+  protected Object extractAndConvertValue(ConsumerRecord<?, ?> record, Type type) {
+    var value = record.value();
+
+    if (value == null) {
+      return KafkaNull.INSTANCE;
+    }
+    if (value instanceof byte[] bytes) {
+      return codec.decode(bytes, type);
+    }
+    if (value instanceof Bytes bytes) {
+      return codec.decode(bytes.get(), type);
+    }
+    if (value instanceof String string) {
+      return codec.decode(string.getBytes(StandardCharsets.UTF_8), type);
+    }
+    return value;
+  }
+}
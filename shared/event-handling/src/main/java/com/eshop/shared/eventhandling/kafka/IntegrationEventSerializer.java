@@ -0,0 +1,37 @@
+package com.eshop.shared.eventhandling.kafka;
+
+import com.eshop.shared.eventhandling.codec.IntegrationEventCodec;
+import com.eshop.shared.eventhandling.codec.IntegrationEventFormat;
+import com.eshop.shared.eventhandling.codec.JacksonIntegrationEventCodec;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.util.Map;
+
+/**
+ * Kafka value serializer for integration events. The format is set with the {@link #FORMAT_CONFIG} producer
+ * property and defaults to JSON. Raw bytes, e.g. records forwarded to a dead letter topic, are written unchanged.
+ */
+public class IntegrationEventSerializer implements Serializer<Object> {
+  public static final String FORMAT_CONFIG = "eshop.integration-event.format";
+
+  private IntegrationEventCodec codec = new JacksonIntegrationEventCodec(IntegrationEventFormat.JSON);
+
+  @Override
+  public void configure(Map<String, ?> configs, boolean isKey) {
+    var format = configs.get(FORMAT_CONFIG);
+    if (format != null) {
+      codec = new JacksonIntegrationEventCodec(IntegrationEventFormat.valueOf(format.toString().toUpperCase()));
+    }
+  }
+
+  @Override
+  public byte[] serialize(String topic, Object data) {
+    if (data == null) {
+      return null;
+    }
+    if (data instanceof byte[] bytes) {
+      return bytes;
+    }
+    return codec.encode(data);
+  }
+}
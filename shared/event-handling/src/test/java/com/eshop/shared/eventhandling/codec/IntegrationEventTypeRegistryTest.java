@@ -0,0 +1,100 @@
+package com.eshop.shared.eventhandling.codec;
+
+import com.eshop.shared.eventhandling.IntegrationEvent;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IntegrationEventTypeRegistryTest {
+  private final IntegrationEventTypeRegistry registry = new IntegrationEventTypeRegistry();
+
+  @Test
+  void namesUnannotatedEventsAfterTheirSimpleClassName() {
+    assertThat(registry.nameOf(PlainEvent.class)).isEqualTo("PlainEvent");
+    assertThat(registry.versionOf(PlainEvent.class)).isEqualTo(1);
+    assertThat(registry.resolve("PlainEvent", 1)).isEqualTo(PlainEvent.class);
+  }
+
+  @Test
+  void namesAnnotatedEventsAfterTheirAnnotation() {
+    assertThat(registry.nameOf(PriceChangedV2.class)).isEqualTo("PriceChanged");
+    assertThat(registry.versionOf(PriceChangedV2.class)).isEqualTo(2);
+    assertThat(registry.resolve("PriceChanged", 2)).isEqualTo(PriceChangedV2.class);
+  }
+
+  @Test
+  void resolvesEveryVersionOfAName() {
+    registry.register(PriceChangedV1.class);
+    registry.register(PriceChangedV2.class);
+
+    assertThat(registry.resolve("PriceChanged", 1)).isEqualTo(PriceChangedV1.class);
+    assertThat(registry.resolve("PriceChanged", 2)).isEqualTo(PriceChangedV2.class);
+  }
+
+  @Test
+  void resolvesEventsStoredWithoutVersionAsVersionOne() {
+    registry.register(PriceChangedV1.class);
+    registry.register(PriceChangedV2.class);
+
+    assertThat(registry.resolve("PriceChanged", null)).isEqualTo(PriceChangedV1.class);
+  }
+
+  @Test
+  void registersTheSameClassTwice() {
+    registry.register(PlainEvent.class);
+    registry.register(PlainEvent.class);
+
+    assertThat(registry.resolve("PlainEvent", 1)).isEqualTo(PlainEvent.class);
+  }
+
+  @Test
+  void rejectsTwoClassesWithTheSameNameAndVersion() {
+    registry.register(PriceChangedV1.class);
+
+    assertThatThrownBy(() -> registry.register(OtherPriceChangedV1.class))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("PriceChanged version 1");
+  }
+
+  @Test
+  void failsOnUnknownNames() {
+    registry.register(PriceChangedV1.class);
+
+    assertThatThrownBy(() -> registry.resolve("PriceChanged", 3)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> registry.resolve("Unknown", 1)).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void loadsLegacyClassNames() {
+    assertThat(registry.resolve(PlainEvent.class.getName(), null)).isEqualTo(PlainEvent.class);
+    assertThat(registry.resolve(PlainEvent.class.getName(), null)).isEqualTo(PlainEvent.class);
+  }
+
+  @Test
+  void failsOnUnknownLegacyClassNames() {
+    assertThatThrownBy(() -> registry.resolve("com.eshop.Missing", null))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasCauseInstanceOf(ClassNotFoundException.class);
+  }
+
+  @Test
+  void failsOnLegacyClassNamesOfOtherTypes() {
+    assertThatThrownBy(() -> registry.resolve(String.class.getName(), null)).isInstanceOf(ClassCastException.class);
+  }
+
+  static class PlainEvent extends IntegrationEvent {
+  }
+
+  @IntegrationEventType(name = "PriceChanged")
+  static class PriceChangedV1 extends IntegrationEvent {
+  }
+
+  @IntegrationEventType(name = "PriceChanged", version = 2)
+  static class PriceChangedV2 extends IntegrationEvent {
+  }
+
+  @IntegrationEventType(name = "PriceChanged")
+  static class OtherPriceChangedV1 extends IntegrationEvent {
+  }
+}
@@ -0,0 +1,136 @@
+package com.eshop.shared.eventhandling.codec;
+
+import com.eshop.shared.eventhandling.IntegrationEvent;
+import com.fasterxml.jackson.core.type.TypeReference;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JacksonIntegrationEventCodecTest {
+
+  @ParameterizedTest
+  @EnumSource(IntegrationEventFormat.class)
+  void decodesWhatItEncodes(IntegrationEventFormat format) {
+    var codec = new JacksonIntegrationEventCodec(format);
+    var event = new OrderEvent("order-1", List.of(new OrderLine(1L, 2), new OrderLine(3L, 4)));
+
+    var decoded = codec.decode(codec.encode(event), OrderEvent.class);
+
+    assertSameEvent(decoded, event);
+  }
+
+  @Test
+  void writesSmileWithItsHeader() {
+    var codec = new JacksonIntegrationEventCodec(IntegrationEventFormat.SMILE);
+
+    var content = codec.encode(new OrderEvent("order-1", List.of()));
+
+    assertThat(new String(content, 0, 3, StandardCharsets.ISO_8859_1)).isEqualTo(":)\n");
+  }
+
+  @Test
+  void writesJsonAsText() {
+    var codec = new JacksonIntegrationEventCodec(IntegrationEventFormat.JSON);
+
+    var content = codec.encode(new OrderEvent("order-1", List.of()));
+
+    assertThat(new String(content, StandardCharsets.UTF_8)).startsWith("{").contains("\"orderId\":\"order-1\"");
+  }
+
+  @Test
+  void readsJsonWhenWritingSmile() {
+    var event = new OrderEvent("order-1", List.of(new OrderLine(1L, 2)));
+    var json = new JacksonIntegrationEventCodec(IntegrationEventFormat.JSON).encode(event);
+
+    var decoded = new JacksonIntegrationEventCodec(IntegrationEventFormat.SMILE).decode(json, OrderEvent.class);
+
+    assertSameEvent(decoded, event);
+  }
+
+  @Test
+  void readsSmileWhenWritingJson() {
+    var event = new OrderEvent("order-1", List.of(new OrderLine(1L, 2)));
+    var smile = new JacksonIntegrationEventCodec(IntegrationEventFormat.SMILE).encode(event);
+
+    var decoded = new JacksonIntegrationEventCodec(IntegrationEventFormat.JSON).decode(smile, OrderEvent.class);
+
+    assertSameEvent(decoded, event);
+  }
+
+  @Test
+  void ignoresUnknownProperties() {
+    var json = "{\"orderId\":\"order-1\",\"addedLater\":true}".getBytes(StandardCharsets.UTF_8);
+
+    var decoded = new JacksonIntegrationEventCodec(IntegrationEventFormat.SMILE).decode(json, OrderEvent.class);
+
+    assertThat(decoded.getOrderId()).isEqualTo("order-1");
+  }
+
+  @Test
+  void decodesGenericTypes() {
+    var codec = new JacksonIntegrationEventCodec(IntegrationEventFormat.SMILE);
+    var lines = List.of(new OrderLine(1L, 2), new OrderLine(3L, 4));
+
+    @SuppressWarnings("unchecked")
+    var decoded = (List<OrderLine>) codec.decode(
+        codec.encode(lines),
+        new TypeReference<List<OrderLine>>() {}.getType()
+    );
+
+    assertThat(decoded).extracting(OrderLine::getProductId).containsExactly(1L, 3L);
+  }
+
+  @Test
+  void decodesTypesBeyondTheCacheLimit() {
+    var codec = new JacksonIntegrationEventCodec(IntegrationEventFormat.SMILE, 1);
+    var line = new OrderLine(1L, 2);
+    var event = new OrderEvent("order-1", List.of(line));
+
+    for (var i = 0; i < 2; i++) {
+      assertSameEvent(codec.decode(codec.encode(event), OrderEvent.class), event);
+      assertThat(codec.decode(codec.encode(line), OrderLine.class).getUnits()).isEqualTo(2);
+    }
+  }
+
+  @Test
+  void failsOnUnreadableContent() {
+    var codec = new JacksonIntegrationEventCodec(IntegrationEventFormat.SMILE);
+
+    assertThatThrownBy(() -> codec.decode("not an event".getBytes(StandardCharsets.UTF_8), OrderEvent.class))
+        .isInstanceOf(UncheckedIOException.class)
+        .hasMessageContaining(OrderEvent.class.getName());
+  }
+
+  private static void assertSameEvent(OrderEvent decoded, OrderEvent event) {
+    assertThat(decoded.getId()).isEqualTo(event.getId());
+    assertThat(decoded.getCreationDate()).isEqualTo(event.getCreationDate());
+    assertThat(decoded.getOrderId()).isEqualTo(event.getOrderId());
+    assertThat(decoded.getLines()).usingRecursiveFieldByFieldElementComparator().isEqualTo(event.getLines());
+  }
+
+  @NoArgsConstructor
+  @AllArgsConstructor
+  @Getter
+  static class OrderEvent extends IntegrationEvent {
+    private String orderId;
+    private List<OrderLine> lines;
+  }
+
+  @NoArgsConstructor
+  @AllArgsConstructor
+  @Getter
+  static class OrderLine {
+    private Long productId;
+    private Integer units;
+  }
+}
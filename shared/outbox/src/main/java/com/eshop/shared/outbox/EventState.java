@@ -4,5 +4,13 @@ public enum EventState {
   NotPublished,
   InProgress,
   Published,
-  PublishedFailed
+  PublishedFailed,
+  /**
+   * Publishing failed <code>app.outbox.max-attempts</code> times, the entry is not retried any more.
+   */
+  RetriesExhausted,
+  /**
+   * The stored content cannot be decoded into its event type, the entry is never published.
+   */
+  Unreadable
 }
@@ -1,7 +1,6 @@
 package com.eshop.shared.outbox;
 
 import com.eshop.shared.eventhandling.IntegrationEvent;
-import com.fasterxml.jackson.core.JsonProcessingException;
 import lombok.*;
 
 import javax.persistence.*;
@@ -19,21 +18,34 @@ public class IntegrationEventLogEntry {
   private UUID eventId;
   private LocalDateTime creationTime;
   private String eventTypeName;
-  private String content;
+  private Integer eventTypeVersion;
+  private byte[] content;
   @Setter
   @Enumerated(EnumType.STRING)
   private EventState eventState;
   private Integer timesSent;
   private String topic;
+  // Instance that currently publishes the entry and until when it may do so
+  private String leaseOwner;
+  private LocalDateTime leaseExpiresAt;
+  // Earliest time a failed entry is published again
+  private LocalDateTime nextAttemptAt;
 
   @Transient
   @Setter
   private IntegrationEvent event;
 
-  IntegrationEventLogEntry(IntegrationEvent event, String content, String topic) throws JsonProcessingException {
+  IntegrationEventLogEntry(
+      IntegrationEvent event,
+      String eventTypeName,
+      int eventTypeVersion,
+      byte[] content,
+      String topic
+  ) {
     eventId = event.getId();
     creationTime = LocalDateTime.now();
-    eventTypeName = event.getClass().getName();
+    this.eventTypeName = eventTypeName;
+    this.eventTypeVersion = eventTypeVersion;
     this.content = content;
     eventState = EventState.NotPublished;
     timesSent = 0;
@@ -44,4 +56,17 @@ public class IntegrationEventLogEntry {
     this.timesSent++;
   }
 
+  void lease(String owner, LocalDateTime expiresAt) {
+    this.leaseOwner = owner;
+    this.leaseExpiresAt = expiresAt;
+  }
+
+  void retryAt(LocalDateTime nextAttemptAt) {
+    this.nextAttemptAt = nextAttemptAt;
+  }
+
+  void releaseLease() {
+    lease(null, null);
+  }
+
 }
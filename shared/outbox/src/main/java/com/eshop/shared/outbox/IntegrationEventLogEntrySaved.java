@@ -0,0 +1,10 @@
+package com.eshop.shared.outbox;
+
+import java.util.UUID;
+
+/**
+ * Application event published when an integration event has been written to the outbox. Listeners bound to the
+ * transaction phase receive it only after the surrounding transaction committed.
+ */
+public record IntegrationEventLogEntrySaved(UUID eventId, String topic) {
+}
@@ -1,10 +1,111 @@
 package com.eshop.shared.outbox;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface IntegrationEventLogRepository extends JpaRepository<IntegrationEventLogEntry, Long> {
   Optional<IntegrationEventLogEntry> findByEventId(UUID eventId);
+
+  /**
+   * Returns a bounded page of entries that can be claimed: entries waiting to be published, failed entries with
+   * attempts left whose backoff elapsed, and entries whose lease expired while in progress. Rows are locked with
+   * <code>FOR UPDATE SKIP LOCKED</code> (lock timeout -2 in Hibernate), so concurrent instances never block on
+   * each other and never read the same rows.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "-2"))
+  @Query("select e from IntegrationEventLogEntry e " +
+      "where e.eventState = com.eshop.shared.outbox.EventState.NotPublished " +
+      "   or (e.eventState = com.eshop.shared.outbox.EventState.PublishedFailed and e.timesSent < :maxAttempts " +
+      "       and (e.nextAttemptAt is null or e.nextAttemptAt <= :now)) " +
+      "   or (e.eventState = com.eshop.shared.outbox.EventState.InProgress and e.leaseExpiresAt < :now)")
+  List<IntegrationEventLogEntry> findClaimable(
+      @Param("now") LocalDateTime now,
+      @Param("maxAttempts") int maxAttempts,
+      Pageable pageable
+  );
+
+  @Modifying(clearAutomatically = true)
+  @Query("update IntegrationEventLogEntry e " +
+      "set e.eventState = com.eshop.shared.outbox.EventState.InProgress, e.timesSent = e.timesSent + 1, " +
+      "    e.leaseOwner = :leaseOwner, e.leaseExpiresAt = :leaseExpiresAt " +
+      "where e.id in :ids")
+  int claim(
+      @Param("ids") Collection<Integer> ids,
+      @Param("leaseOwner") String leaseOwner,
+      @Param("leaseExpiresAt") LocalDateTime leaseExpiresAt
+  );
+
+  /**
+   * Stores the final state of entries that are still leased by the given owner and releases their lease.
+   * Entries whose lease expired and that have been claimed by another instance meanwhile are left untouched.
+   */
+  @Modifying
+  @Query("update IntegrationEventLogEntry e " +
+      "set e.eventState = :eventState, e.leaseOwner = null, e.leaseExpiresAt = null " +
+      "where e.id in :ids and e.leaseOwner = :leaseOwner")
+  int release(
+      @Param("ids") Collection<Integer> ids,
+      @Param("leaseOwner") String leaseOwner,
+      @Param("eventState") EventState eventState
+  );
+
+  /**
+   * Marks entries that are still leased by the given owner as failed, to be claimed again from the given time on.
+   */
+  @Modifying
+  @Query("update IntegrationEventLogEntry e " +
+      "set e.eventState = com.eshop.shared.outbox.EventState.PublishedFailed, e.nextAttemptAt = :nextAttemptAt, " +
+      "    e.leaseOwner = null, e.leaseExpiresAt = null " +
+      "where e.id in :ids and e.leaseOwner = :leaseOwner")
+  int releaseForRetry(
+      @Param("ids") Collection<Integer> ids,
+      @Param("leaseOwner") String leaseOwner,
+      @Param("nextAttemptAt") LocalDateTime nextAttemptAt
+  );
+
+  @Transactional
+  @Modifying
+  @Query(value = "delete from outbox " +
+      "where id in (select id from outbox " +
+      "             where event_state = 'Published' and creation_time < :createdBefore " +
+      "             limit :batchSize)",
+      nativeQuery = true)
+  int deletePublishedCreatedBefore(
+      @Param("createdBefore") LocalDateTime createdBefore,
+      @Param("batchSize") int batchSize
+  );
+
+  @Transactional
+  @Modifying
+  @Query(value = "with expired as (" +
+      "    delete from outbox " +
+      "    where id in (select id from outbox " +
+      "                 where event_state = 'Published' and creation_time < :createdBefore " +
+      "                 limit :batchSize) " +
+      "    returning id, content, creation_time, event_id, event_state, event_type_name, event_type_version, " +
+      "              times_sent, topic) " +
+      "insert into outbox_archive (id, content, creation_time, event_id, event_state, event_type_name, " +
+      "                            event_type_version, times_sent, topic) " +
+      "select id, content, creation_time, event_id, event_state, event_type_name, event_type_version, times_sent, topic " +
+      "from expired",
+      nativeQuery = true)
+  int archivePublishedCreatedBefore(
+      @Param("createdBefore") LocalDateTime createdBefore,
+      @Param("batchSize") int batchSize
+  );
 }
@@ -0,0 +1,131 @@
+package com.eshop.shared.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the outbox table small by removing published entries older than the configured retention.
+ * Entries are removed in small batches so that a run never holds long locks, and are either deleted or moved
+ * to the monthly partitioned <code>outbox_archive</code> table.
+ */
+public class IntegrationEventLogRetentionProcessor {
+  private static final Logger logger = LoggerFactory.getLogger(IntegrationEventLogRetentionProcessor.class);
+
+  private final IntegrationEventLogRepository integrationEventLogRepository;
+  private final JdbcTemplate jdbcTemplate;
+  private final OutboxProperties.Retention retention;
+
+  private final Counter deletedCounter;
+  private final Counter archivedCounter;
+  private final AtomicLong tableRows = new AtomicLong();
+  private final AtomicLong tableBytes = new AtomicLong();
+
+  public IntegrationEventLogRetentionProcessor(
+      IntegrationEventLogRepository integrationEventLogRepository,
+      JdbcTemplate jdbcTemplate,
+      OutboxProperties outboxProperties,
+      MeterRegistry meterRegistry
+  ) {
+    this.integrationEventLogRepository = integrationEventLogRepository;
+    this.jdbcTemplate = jdbcTemplate;
+    this.retention = outboxProperties.getRetention();
+
+    deletedCounter = Counter.builder("outbox.retention.purged")
+        .description("Published outbox entries removed from the outbox table")
+        .tag("action", "deleted")
+        .register(meterRegistry);
+    archivedCounter = Counter.builder("outbox.retention.purged")
+        .description("Published outbox entries removed from the outbox table")
+        .tag("action", "archived")
+        .register(meterRegistry);
+    Gauge.builder("outbox.table.rows", tableRows, AtomicLong::get)
+        .description("Estimated number of rows in the outbox table")
+        .register(meterRegistry);
+    Gauge.builder("outbox.table.size", tableBytes, AtomicLong::get)
+        .description("Size of the outbox table including indexes")
+        .baseUnit("bytes")
+        .register(meterRegistry);
+  }
+
+  @Scheduled(fixedDelayString = "${app.outbox.retention.interval:PT5M}")
+  public void process() {
+    var createdBefore = LocalDateTime.now().minus(retention.getPublishedTtl());
+
+    if (retention.isArchive()) {
+      createArchivePartitions();
+    }
+
+    long purged = 0;
+    for (int batch = 0; batch < retention.getMaxBatchesPerRun(); batch++) {
+      int removed = purgeBatch(createdBefore);
+      purged += removed;
+
+      if (removed < retention.getBatchSize()) {
+        break;
+      }
+    }
+
+    if (purged > 0) {
+      logger.info("{} published integration events older than {} have been {}",
+          purged, createdBefore, retention.isArchive() ? "archived" : "deleted");
+    }
+
+    refreshTableStatistics();
+  }
+
+  private int purgeBatch(LocalDateTime createdBefore) {
+    if (retention.isArchive()) {
+      int archived = integrationEventLogRepository.archivePublishedCreatedBefore(createdBefore, retention.getBatchSize());
+      archivedCounter.increment(archived);
+      return archived;
+    }
+
+    int deleted = integrationEventLogRepository.deletePublishedCreatedBefore(createdBefore, retention.getBatchSize());
+    deletedCounter.increment(deleted);
+    return deleted;
+  }
+
+  /**
+   * Creates the partitions for the current and the next month ahead of time. Rows that do not fit any partition
+   * end up in the default partition.
+   */
+  private void createArchivePartitions() {
+    var currentMonth = YearMonth.now();
+    createArchivePartition(currentMonth);
+    createArchivePartition(currentMonth.plusMonths(1));
+  }
+
+  private void createArchivePartition(YearMonth month) {
+    LocalDate from = month.atDay(1);
+    LocalDate to = month.plusMonths(1).atDay(1);
+    try {
+      jdbcTemplate.execute(
+          "create table if not exists outbox_archive_%d_%02d partition of outbox_archive for values from ('%s') to ('%s')"
+              .formatted(month.getYear(), month.getMonthValue(), from, to)
+      );
+    } catch (DataAccessException e) {
+      logger.warn("Could not create outbox archive partition for {}", month, e);
+    }
+  }
+
+  private void refreshTableStatistics() {
+    try {
+      tableRows.set(jdbcTemplate.queryForObject(
+          "select greatest(reltuples, 0)::bigint from pg_class where oid = 'outbox'::regclass", Long.class));
+      tableBytes.set(jdbcTemplate.queryForObject("select pg_total_relation_size('outbox')", Long.class));
+    } catch (DataAccessException e) {
+      logger.warn("Could not read outbox table statistics", e);
+    }
+  }
+}
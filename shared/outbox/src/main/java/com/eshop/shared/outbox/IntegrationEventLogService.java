@@ -5,13 +5,27 @@ import com.eshop.shared.eventhandling.IntegrationEvent;
 import java.util.List;
 
 public interface IntegrationEventLogService {
-  List<IntegrationEventLogEntry> retrieveEventLogsPendingToPublish();
+  /**
+   * Claims a batch of entries to be published by this instance. Claimed entries are in progress and leased to
+   * this instance until they are marked as published or failed, or until the lease expires. Entries whose event
+   * cannot be read are marked as unreadable right away, are not returned and are never claimed again.
+   *
+   * @return claimed entries with deserialized events
+   */
+  List<IntegrationEventLogEntry> claimEventLogsPendingToPublish();
 
-  void markEventAsInProgress(IntegrationEventLogEntry eventLogEntry);
+  void markEventsAsPublished(List<IntegrationEventLogEntry> eventLogEntries);
 
-  void markEventAsPublished(IntegrationEventLogEntry eventLogEntry);
-
-  void markEventAsFailed(IntegrationEventLogEntry eventLogEntry);
+  /**
+   * Releases entries that could not be published. They are claimed again after a backoff that grows with every
+   * attempt, entries that have been sent <code>app.outbox.max-attempts</code> times are not retried any more.
+   */
+  void markEventsAsFailed(List<IntegrationEventLogEntry> eventLogEntries);
 
   void saveEvent(IntegrationEvent event, String topic);
+
+  /**
+   * Saves all given events to the same topic, with a single dispatch after the surrounding transaction commits.
+   */
+  void saveEvents(List<? extends IntegrationEvent> events, String topic);
 }
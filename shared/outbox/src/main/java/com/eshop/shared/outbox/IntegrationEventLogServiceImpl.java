@@ -1,74 +1,200 @@
 package com.eshop.shared.outbox;
 
 import com.eshop.shared.eventhandling.IntegrationEvent;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.eshop.shared.eventhandling.codec.IntegrationEventCodec;
+import com.eshop.shared.eventhandling.codec.IntegrationEventTypeRegistry;
 import lombok.RequiredArgsConstructor;
-import lombok.SneakyThrows;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @RequiredArgsConstructor
 public class IntegrationEventLogServiceImpl implements IntegrationEventLogService {
   private static final Logger logger = LoggerFactory.getLogger(IntegrationEventLogServiceImpl.class);
 
-  private final ObjectMapper eventLogObjectMapper;
+  private final IntegrationEventCodec eventLogCodec;
+  private final IntegrationEventTypeRegistry integrationEventTypeRegistry;
   private final IntegrationEventLogRepository integrationEventLogRepository;
+  private final OutboxProperties outboxProperties;
+  private final ApplicationEventPublisher applicationEventPublisher;
 
   @Override
-  public List<IntegrationEventLogEntry> retrieveEventLogsPendingToPublish() {
-    return integrationEventLogRepository.findAll()
-        .stream()
-        .filter(eventLogEntry -> EventState.NotPublished.equals(eventLogEntry.getEventState()))
-        .peek(eventLogEntry -> eventLogEntry.setEvent(this.deserialize(eventLogEntry)))
-        .collect(Collectors.toList());
-  }
+  @Transactional
+  public List<IntegrationEventLogEntry> claimEventLogsPendingToPublish() {
+    var now = LocalDateTime.now();
+    var eventLogEntries = integrationEventLogRepository.findClaimable(
+        now,
+        outboxProperties.getMaxAttempts(),
+        PageRequest.of(0, outboxProperties.getBatchSize(), Sort.by("creationTime", "id"))
+    );
 
-  @Override
-  public void markEventAsInProgress(IntegrationEventLogEntry eventLogEntry) {
-    updateEventStatus(eventLogEntry, EventState.InProgress);
+    if (eventLogEntries.isEmpty()) {
+      return eventLogEntries;
+    }
+
+    var leaseExpiresAt = now.plus(outboxProperties.getLeaseDuration());
+    integrationEventLogRepository.claim(ids(eventLogEntries), outboxProperties.getInstanceId(), leaseExpiresAt);
+
+    var readableEntries = new ArrayList<IntegrationEventLogEntry>(eventLogEntries.size());
+    var unreadableEntries = new ArrayList<IntegrationEventLogEntry>();
+    for (var eventLogEntry : eventLogEntries) {
+      eventLogEntry.setEventState(EventState.InProgress);
+      eventLogEntry.incrementTimesSent();
+      eventLogEntry.lease(outboxProperties.getInstanceId(), leaseExpiresAt);
+
+      // An entry that cannot be read must not roll back the claim, and it is never claimed again, or it would
+      // come back on every poll and eventually fill whole batches
+      try {
+        eventLogEntry.setEvent(this.deserialize(eventLogEntry));
+        readableEntries.add(eventLogEntry);
+      } catch (RuntimeException e) {
+        logger.error("Integration event {} of type {} version {} cannot be read and will not be published",
+            eventLogEntry.getEventId(), eventLogEntry.getEventTypeName(), eventLogEntry.getEventTypeVersion(), e);
+        unreadableEntries.add(eventLogEntry);
+      }
+    }
+
+    releaseEvents(unreadableEntries, EventState.Unreadable);
+    return readableEntries;
   }
 
   @Override
-  public void markEventAsPublished(IntegrationEventLogEntry eventLogEntry) {
-    updateEventStatus(eventLogEntry, EventState.Published);
+  @Transactional
+  public void markEventsAsPublished(List<IntegrationEventLogEntry> eventLogEntries) {
+    releaseEvents(eventLogEntries, EventState.Published);
   }
 
   @Override
-  public void markEventAsFailed(IntegrationEventLogEntry eventLogEntry) {
-    updateEventStatus(eventLogEntry, EventState.PublishedFailed);
+  @Transactional
+  public void markEventsAsFailed(List<IntegrationEventLogEntry> eventLogEntries) {
+    var exhausted = eventLogEntries.stream()
+        .collect(Collectors.partitioningBy(
+            eventLogEntry -> eventLogEntry.getTimesSent() >= outboxProperties.getMaxAttempts()
+        ));
+
+    exhausted.get(true).forEach(eventLogEntry -> logger.error(
+        "Integration event {} could not be published in {} attempts and will not be retried",
+        eventLogEntry.getEventId(), eventLogEntry.getTimesSent()));
+    releaseEvents(exhausted.get(true), EventState.RetriesExhausted);
+
+    // Entries of a batch have mostly been sent the same number of times, so this is one update per batch
+    var now = LocalDateTime.now();
+    exhausted.get(false).stream()
+        .collect(Collectors.groupingBy(IntegrationEventLogEntry::getTimesSent))
+        .forEach((timesSent, retried) -> releaseForRetry(retried, now.plus(retryBackoff(timesSent))));
   }
 
   @Override
   public void saveEvent(IntegrationEvent event, String topic) {
     if (event == null) throw new IllegalArgumentException("event cannot be null");
+    saveEvents(List.of(event), topic);
+  }
+
+  @Override
+  public void saveEvents(List<? extends IntegrationEvent> events, String topic) {
+    // Immutable lists throw on contains(null)
+    if (events == null || events.stream().anyMatch(Objects::isNull)) throw new IllegalArgumentException("event cannot be null");
     if (topic == null) throw new IllegalArgumentException("topic cannot be null");
+    if (events.isEmpty()) {
+      return;
+    }
+
+    var eventLogEntries = new ArrayList<IntegrationEventLogEntry>(events.size());
+    for (var event : events) {
+      try {
+        eventLogEntries.add(createEventLogEntry(event, topic));
+      } catch (IllegalArgumentException e) {
+        logger.error("Error while creating IntegrationEventLogEntry for {}: ", event.getClass().getSimpleName(), e);
+      }
+    }
+    integrationEventLogRepository.saveAll(eventLogEntries);
 
-    try {
-      var eventLogEntry = new IntegrationEventLogEntry(event, eventLogObjectMapper.writeValueAsString(event), topic);
-      integrationEventLogRepository.save(eventLogEntry);
-    } catch (JsonProcessingException e) {
-      logger.error("Error while creating IntegrationEventLogEntry for {}: ", event.getClass().getSimpleName(), e);
+    if (outboxProperties.isDispatchOnCommit() && !eventLogEntries.isEmpty()) {
+      var lastEvent = eventLogEntries.get(eventLogEntries.size() - 1);
+      applicationEventPublisher.publishEvent(new IntegrationEventLogEntrySaved(lastEvent.getEventId(), topic));
     }
   }
 
-  private void updateEventStatus(IntegrationEventLogEntry eventLogEntry, EventState eventState) {
-    eventLogEntry.setEventState(eventState);
+  private IntegrationEventLogEntry createEventLogEntry(IntegrationEvent event, String topic) {
+    var eventType = event.getClass();
+    return new IntegrationEventLogEntry(
+        event,
+        integrationEventTypeRegistry.nameOf(eventType),
+        integrationEventTypeRegistry.versionOf(eventType),
+        eventLogCodec.encode(event),
+        topic
+    );
+  }
 
-    if (EventState.InProgress.equals(eventState))
-      eventLogEntry.incrementTimesSent();
+  private void releaseEvents(List<IntegrationEventLogEntry> eventLogEntries, EventState eventState) {
+    if (eventLogEntries.isEmpty()) {
+      return;
+    }
+
+    int released = integrationEventLogRepository.release(
+        ids(eventLogEntries),
+        outboxProperties.getInstanceId(),
+        eventState
+    );
+    if (released < eventLogEntries.size()) {
+      logger.warn("{} integration events were claimed by another instance after their lease expired",
+          eventLogEntries.size() - released);
+    }
+
+    eventLogEntries.forEach(eventLogEntry -> {
+      eventLogEntry.setEventState(eventState);
+      eventLogEntry.releaseLease();
+    });
+  }
+
+  private void releaseForRetry(List<IntegrationEventLogEntry> eventLogEntries, LocalDateTime nextAttemptAt) {
+    int released = integrationEventLogRepository.releaseForRetry(
+        ids(eventLogEntries),
+        outboxProperties.getInstanceId(),
+        nextAttemptAt
+    );
+    if (released < eventLogEntries.size()) {
+      logger.warn("{} integration events were claimed by another instance after their lease expired",
+          eventLogEntries.size() - released);
+    }
+
+    eventLogEntries.forEach(eventLogEntry -> {
+      eventLogEntry.setEventState(EventState.PublishedFailed);
+      eventLogEntry.retryAt(nextAttemptAt);
+      eventLogEntry.releaseLease();
+    });
+  }
+
+  /**
+   * Backoff after the given number of failed attempts, doubled with every attempt up to the configured maximum.
+   */
+  private Duration retryBackoff(int timesSent) {
+    var maxRetryBackoff = outboxProperties.getMaxRetryBackoff();
+    var backoff = outboxProperties.getRetryBackoff();
+    for (int attempt = 1; attempt < timesSent && backoff.compareTo(maxRetryBackoff) < 0; attempt++) {
+      backoff = backoff.multipliedBy(2);
+    }
+    return backoff.compareTo(maxRetryBackoff) < 0 ? backoff : maxRetryBackoff;
+  }
 
-    integrationEventLogRepository.save(eventLogEntry);
+  private List<Integer> ids(List<IntegrationEventLogEntry> eventLogEntries) {
+    return eventLogEntries.stream().map(IntegrationEventLogEntry::getId).collect(Collectors.toList());
   }
 
-  @SneakyThrows
   private IntegrationEvent deserialize(IntegrationEventLogEntry eventLogEntry) {
-    return (IntegrationEvent) eventLogObjectMapper.readValue(
+    return eventLogCodec.decode(
         eventLogEntry.getContent(),
-        Class.forName(eventLogEntry.getEventTypeName())
+        integrationEventTypeRegistry.resolve(eventLogEntry.getEventTypeName(), eventLogEntry.getEventTypeVersion())
     );
   }
 }
@@ -4,29 +4,130 @@ import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Publishes pending outbox entries in batches. Entries are claimed with a lease, so several instances can share
+ * the outbox without publishing the same entry twice, and entries left in progress by a crashed instance are
+ * picked up again once their lease expired. Every entry of a batch is sent without waiting for the broker,
+ * the acknowledgements are collected afterwards and the outcome is stored with one bulk update per state.
+ * An entry is marked as published only after the broker acknowledged it; failed entries are retried
+ * on a later poll after a growing backoff, until <code>app.outbox.max-attempts</code> is reached.
+ * <p>
+ * Publishing runs on a single dispatcher thread. It is woken up right after a transaction that saved an event
+ * commits, and by the scheduled poll which acts as a safety net. Wake-ups that arrive while a run is queued
+ * are coalesced into that run.
+ */
 @RequiredArgsConstructor
 public class IntegrationEventProcessor {
   private static final Logger logger = LoggerFactory.getLogger(IntegrationEventProcessor.class);
 
   private final IntegrationEventLogService integrationEventLogService;
   private final IntegrationEventPublisher integrationEventPublisher;
+  private final OutboxProperties outboxProperties;
+
+  private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+    var thread = new Thread(runnable, "outbox-dispatcher");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private final AtomicBoolean runRequested = new AtomicBoolean();
+
+  @Scheduled(fixedDelayString = "${app.outbox.polling-interval:PT2S}")
+  public void poll() {
+    requestRun();
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onEventSaved(IntegrationEventLogEntrySaved eventSaved) {
+    requestRun();
+  }
 
-  @Scheduled(fixedDelay = 2000)
-  public void process() {
-    var eventLogEntries = integrationEventLogService.retrieveEventLogsPendingToPublish();
+  public void shutdown() {
+    dispatcher.shutdown();
+  }
+
+  private void requestRun() {
+    if (runRequested.compareAndSet(false, true)) {
+      dispatcher.execute(this::run);
+    }
+  }
 
-    if (eventLogEntries.size() > 0) {
-      logger.info("{} integration events are ready to be published", eventLogEntries.size());
-      eventLogEntries.forEach(this::publish);
-    } else {
-      logger.info("No integration events found to publish");
+  private void run() {
+    runRequested.set(false);
+    try {
+      // Keep draining while full batches are published, so that bursts do not wait for the next wake-up
+      while (process()) {
+        logger.debug("Outbox batch was full, processing next batch");
+      }
+    } catch (RuntimeException e) {
+      logger.error("Error while processing integration events", e);
     }
   }
 
-  private void publish(IntegrationEventLogEntry eventLogEntry) {
-    integrationEventLogService.markEventAsInProgress(eventLogEntry);
-    integrationEventPublisher.publish(eventLogEntry);
-    integrationEventLogService.markEventAsPublished(eventLogEntry);
+  /**
+   * Publishes one batch of pending entries.
+   *
+   * @return whether the batch was full and completely published, i.e. more entries are likely pending
+   */
+  private boolean process() {
+    var eventLogEntries = integrationEventLogService.claimEventLogsPendingToPublish();
+
+    if (eventLogEntries.isEmpty()) {
+      logger.debug("No integration events found to publish");
+      return false;
+    }
+
+    logger.info("{} integration events are ready to be published", eventLogEntries.size());
+    return publish(eventLogEntries) && eventLogEntries.size() >= outboxProperties.getBatchSize();
+  }
+
+  private boolean publish(List<IntegrationEventLogEntry> eventLogEntries) {
+    var acknowledgements = eventLogEntries.stream()
+        .collect(Collectors.toMap(eventLogEntry -> eventLogEntry, this::publish));
+    CompletableFuture.allOf(acknowledgements.values().toArray(CompletableFuture[]::new)).join();
+
+    var outcome = acknowledgements.entrySet().stream()
+        .collect(Collectors.partitioningBy(
+            acknowledgement -> acknowledgement.getValue().join(),
+            Collectors.mapping(Map.Entry::getKey, Collectors.toList())
+        ));
+
+    integrationEventLogService.markEventsAsPublished(outcome.get(true));
+    integrationEventLogService.markEventsAsFailed(outcome.get(false));
+
+    if (!outcome.get(false).isEmpty()) {
+      logger.warn("{} integration events could not be published", outcome.get(false).size());
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Sends one entry. The returned future never completes exceptionally, it holds whether the broker acknowledged it.
+   */
+  private CompletableFuture<Boolean> publish(IntegrationEventLogEntry eventLogEntry) {
+    CompletableFuture<Void> acknowledgement;
+    try {
+      acknowledgement = integrationEventPublisher.publish(eventLogEntry);
+    } catch (RuntimeException e) {
+      acknowledgement = CompletableFuture.failedFuture(e);
+    }
+
+    return acknowledgement.handle((result, error) -> {
+      if (error != null) {
+        logger.error("Error while publishing integration event: {}", eventLogEntry.getEventId(), error);
+        return false;
+      }
+      return true;
+    });
   }
 }
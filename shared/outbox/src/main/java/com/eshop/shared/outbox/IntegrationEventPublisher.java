@@ -1,5 +1,13 @@
 package com.eshop.shared.outbox;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface IntegrationEventPublisher {
-  void publish(IntegrationEventLogEntry eventLogEntry);
+  /**
+   * Sends the event of the given entry without waiting for the broker.
+   *
+   * @param eventLogEntry entry to be published
+   * @return future completed once the broker acknowledged the event, or completed exceptionally if it was not
+   */
+  CompletableFuture<Void> publish(IntegrationEventLogEntry eventLogEntry);
 }
@@ -1,38 +1,88 @@
 package com.eshop.shared.outbox;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.eshop.shared.eventhandling.IntegrationEvent;
+import com.eshop.shared.eventhandling.codec.IntegrationEventTypeRegistry;
+import com.eshop.shared.eventhandling.codec.JacksonIntegrationEventCodec;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackages;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.type.filter.AssignableTypeFilter;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.util.ClassUtils;
 
 @Configuration
 @EnableScheduling
 @EnableJpaRepositories
 @EntityScan
+@EnableConfigurationProperties(OutboxProperties.class)
 public class OutboxConfiguration {
 
   @Bean
   public IntegrationEventLogService integrationEventLogService(
-      IntegrationEventLogRepository integrationEventLogRepository
+      IntegrationEventLogRepository integrationEventLogRepository,
+      IntegrationEventTypeRegistry integrationEventTypeRegistry,
+      OutboxProperties outboxProperties,
+      ApplicationEventPublisher applicationEventPublisher
   ) {
-    return new IntegrationEventLogServiceImpl(eventLogObjectMapper(), integrationEventLogRepository);
+    return new IntegrationEventLogServiceImpl(
+        new JacksonIntegrationEventCodec(outboxProperties.getFormat()),
+        integrationEventTypeRegistry,
+        integrationEventLogRepository,
+        outboxProperties,
+        applicationEventPublisher
+    );
   }
 
   @Bean
   IntegrationEventProcessor integrationEventProcessor(
       IntegrationEventLogService integrationEventLogService,
-      IntegrationEventPublisher integrationEventPublisher
+      IntegrationEventPublisher integrationEventPublisher,
+      OutboxProperties outboxProperties
   ) {
-    return new IntegrationEventProcessor(integrationEventLogService, integrationEventPublisher);
+    return new IntegrationEventProcessor(integrationEventLogService, integrationEventPublisher, outboxProperties);
   }
 
-  private ObjectMapper eventLogObjectMapper() {
-    ObjectMapper objectMapper = new ObjectMapper();
-    objectMapper.registerModule(new JavaTimeModule());
-    return objectMapper;
+  @Bean
+  @ConditionalOnProperty(prefix = "app.outbox.retention", name = "enabled", havingValue = "true", matchIfMissing = true)
+  IntegrationEventLogRetentionProcessor integrationEventLogRetentionProcessor(
+      IntegrationEventLogRepository integrationEventLogRepository,
+      JdbcTemplate jdbcTemplate,
+      OutboxProperties outboxProperties,
+      MeterRegistry meterRegistry
+  ) {
+    return new IntegrationEventLogRetentionProcessor(
+        integrationEventLogRepository,
+        jdbcTemplate,
+        outboxProperties,
+        meterRegistry
+    );
+  }
+
+  /**
+   * Registers every integration event found in the application packages, so that stored entries can be read
+   * before an event of the same type has been saved by this instance.
+   */
+  @Bean
+  IntegrationEventTypeRegistry integrationEventTypeRegistry(BeanFactory beanFactory) {
+    var registry = new IntegrationEventTypeRegistry();
+    var scanner = new ClassPathScanningCandidateComponentProvider(false);
+    scanner.addIncludeFilter(new AssignableTypeFilter(IntegrationEvent.class));
+
+    AutoConfigurationPackages.get(beanFactory).stream()
+        .flatMap(basePackage -> scanner.findCandidateComponents(basePackage).stream())
+        .map(beanDefinition -> ClassUtils.resolveClassName(beanDefinition.getBeanClassName(), null))
+        .forEach(type -> registry.register(type.asSubclass(IntegrationEvent.class)));
+
+    return registry;
   }
 
 }
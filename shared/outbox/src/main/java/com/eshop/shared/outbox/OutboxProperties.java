@@ -0,0 +1,92 @@
+package com.eshop.shared.outbox;
+
+import com.eshop.shared.eventhandling.codec.IntegrationEventFormat;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Tuning options of the transactional outbox.
+ */
+@ConfigurationProperties("app.outbox")
+@Data
+public class OutboxProperties {
+  /**
+   * Maximum number of pending entries read from the outbox table on every poll.
+   */
+  private int batchSize = 100;
+
+  /**
+   * Format of the event content stored in the outbox table. Entries written in another format remain readable.
+   */
+  private IntegrationEventFormat format = IntegrationEventFormat.SMILE;
+
+  /**
+   * Wakes up the publisher right after the transaction that saved an event commits. The scheduled poll,
+   * configured with <code>app.outbox.polling-interval</code>, then only acts as a safety net.
+   */
+  private boolean dispatchOnCommit = true;
+
+  /**
+   * Identifies this instance as owner of the entries it claims. Must be unique across replicas.
+   */
+  private String instanceId = UUID.randomUUID().toString();
+
+  /**
+   * How long a claimed entry belongs to this instance. Entries still in progress after their lease expired,
+   * e.g. because the owner crashed, are claimed again by any instance. Keep it longer than the producer
+   * delivery timeout (2 minutes by default).
+   */
+  private Duration leaseDuration = Duration.ofMinutes(3);
+
+  /**
+   * Number of times an entry is sent before it is given up and left in the <code>RetriesExhausted</code> state.
+   */
+  private int maxAttempts = 10;
+
+  /**
+   * Delay before a failed entry is sent again. It doubles with every further failure of the entry.
+   */
+  private Duration retryBackoff = Duration.ofSeconds(10);
+
+  /**
+   * Upper bound of the delay before a failed entry is sent again.
+   */
+  private Duration maxRetryBackoff = Duration.ofMinutes(10);
+
+  private final Retention retention = new Retention();
+
+  /**
+   * Clean-up of published entries, see {@link IntegrationEventLogRetentionProcessor}.
+   * The run interval is configured with <code>app.outbox.retention.interval</code>.
+   */
+  @Data
+  public static class Retention {
+    /**
+     * Enables the periodic removal of published entries.
+     */
+    private boolean enabled = true;
+
+    /**
+     * How long published entries are kept in the outbox table.
+     */
+    private Duration publishedTtl = Duration.ofHours(24);
+
+    /**
+     * Number of rows removed by one statement.
+     */
+    private int batchSize = 1000;
+
+    /**
+     * Upper bound of statements executed in one run.
+     */
+    private int maxBatchesPerRun = 50;
+
+    /**
+     * Moves expired entries to the monthly partitioned <code>outbox_archive</code> table instead of deleting them.
+     */
+    private boolean archive = false;
+  }
+}
@@ -0,0 +1,217 @@
+package com.eshop.shared.outbox;
+
+import com.eshop.shared.eventhandling.IntegrationEvent;
+import com.eshop.shared.eventhandling.codec.IntegrationEventFormat;
+import com.eshop.shared.eventhandling.codec.IntegrationEventTypeRegistry;
+import com.eshop.shared.eventhandling.codec.JacksonIntegrationEventCodec;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class IntegrationEventLogServiceImplTest {
+  private static final String TOPIC = "orders";
+
+  private final JacksonIntegrationEventCodec codec = new JacksonIntegrationEventCodec(IntegrationEventFormat.SMILE);
+  private final IntegrationEventTypeRegistry registry = new IntegrationEventTypeRegistry();
+  private final OutboxProperties outboxProperties = new OutboxProperties();
+  private final AtomicInteger ids = new AtomicInteger();
+
+  @Mock
+  private IntegrationEventLogRepository repository;
+  @Mock
+  private ApplicationEventPublisher applicationEventPublisher;
+
+  private IntegrationEventLogServiceImpl service;
+
+  @BeforeEach
+  void setUp() {
+    outboxProperties.setInstanceId("instance-1");
+    outboxProperties.setMaxAttempts(5);
+    outboxProperties.setRetryBackoff(Duration.ofSeconds(10));
+    outboxProperties.setMaxRetryBackoff(Duration.ofSeconds(60));
+    service = new IntegrationEventLogServiceImpl(
+        codec, registry, repository, outboxProperties, applicationEventPublisher
+    );
+
+    // Every entry is still leased by this instance
+    lenient().when(repository.release(anyCollection(), any(), any()))
+        .thenAnswer(invocation -> invocation.<Collection<?>>getArgument(0).size());
+    lenient().when(repository.releaseForRetry(anyCollection(), any(), any()))
+        .thenAnswer(invocation -> invocation.<Collection<?>>getArgument(0).size());
+  }
+
+  @Test
+  void claimsEntriesWithALeaseOfThisInstance() {
+    var entries = List.of(entry(new OrderPaid("order-1")), entry(new OrderPaid("order-2")));
+    when(repository.findClaimable(any(), eq(5), any(Pageable.class))).thenReturn(entries);
+
+    var claimed = service.claimEventLogsPendingToPublish();
+
+    var leaseExpiresAt = ArgumentCaptor.forClass(LocalDateTime.class);
+    verify(repository).claim(eq(List.of(1, 2)), eq("instance-1"), leaseExpiresAt.capture());
+    assertThat(leaseExpiresAt.getValue())
+        .isCloseTo(LocalDateTime.now().plus(outboxProperties.getLeaseDuration()), within(5, ChronoUnit.SECONDS));
+
+    assertThat(claimed).hasSize(2).allSatisfy(entry -> {
+      assertThat(entry.getEventState()).isEqualTo(EventState.InProgress);
+      assertThat(entry.getTimesSent()).isEqualTo(1);
+      assertThat(entry.getLeaseOwner()).isEqualTo("instance-1");
+      assertThat(entry.getLeaseExpiresAt()).isEqualTo(leaseExpiresAt.getValue());
+    });
+    assertThat(claimed)
+        .extracting(entry -> ((OrderPaid) entry.getEvent()).getOrderId())
+        .containsExactly("order-1", "order-2");
+  }
+
+  @Test
+  void claimsNothingWhenNoEntryIsPending() {
+    when(repository.findClaimable(any(), anyInt(), any(Pageable.class))).thenReturn(List.of());
+
+    assertThat(service.claimEventLogsPendingToPublish()).isEmpty();
+    verify(repository, never()).claim(any(), any(), any());
+  }
+
+  @Test
+  void parksUnreadableEntriesAndReturnsTheOthers() {
+    var readable = entry(new OrderPaid("order-1"));
+    var unreadable = entry(new OrderPaid("order-2"));
+    ReflectionTestUtils.setField(unreadable, "content", "not an event".getBytes(StandardCharsets.UTF_8));
+    when(repository.findClaimable(any(), anyInt(), any(Pageable.class))).thenReturn(List.of(readable, unreadable));
+
+    var claimed = service.claimEventLogsPendingToPublish();
+
+    assertThat(claimed).containsExactly(readable);
+    verify(repository).release(List.of(unreadable.getId()), "instance-1", EventState.Unreadable);
+    assertThat(unreadable.getEventState()).isEqualTo(EventState.Unreadable);
+    assertThat(unreadable.getLeaseOwner()).isNull();
+  }
+
+  @Test
+  void releasesPublishedEntries() {
+    var entries = List.of(sent(entry(new OrderPaid("order-1")), 1), sent(entry(new OrderPaid("order-2")), 1));
+
+    service.markEventsAsPublished(entries);
+
+    verify(repository).release(List.of(1, 2), "instance-1", EventState.Published);
+    assertThat(entries).allSatisfy(entry -> {
+      assertThat(entry.getEventState()).isEqualTo(EventState.Published);
+      assertThat(entry.getLeaseOwner()).isNull();
+    });
+  }
+
+  @Test
+  void retriesFailedEntriesAfterABackoffDoubledOnEveryAttempt() {
+    var firstAttempt = sent(entry(new OrderPaid("order-1")), 1);
+    var thirdAttempt = sent(entry(new OrderPaid("order-2")), 3);
+
+    service.markEventsAsFailed(List.of(firstAttempt, thirdAttempt));
+
+    var now = LocalDateTime.now();
+    verify(repository).releaseForRetry(eq(List.of(firstAttempt.getId())), eq("instance-1"), any());
+    verify(repository).releaseForRetry(eq(List.of(thirdAttempt.getId())), eq("instance-1"), any());
+    assertThat(firstAttempt.getNextAttemptAt()).isCloseTo(now.plusSeconds(10), within(5, ChronoUnit.SECONDS));
+    assertThat(thirdAttempt.getNextAttemptAt()).isCloseTo(now.plusSeconds(40), within(5, ChronoUnit.SECONDS));
+    assertThat(List.of(firstAttempt, thirdAttempt)).allSatisfy(entry -> {
+      assertThat(entry.getEventState()).isEqualTo(EventState.PublishedFailed);
+      assertThat(entry.getLeaseOwner()).isNull();
+    });
+  }
+
+  @Test
+  void capsTheBackoff() {
+    var entry = sent(entry(new OrderPaid("order-1")), 4);
+
+    service.markEventsAsFailed(List.of(entry));
+
+    assertThat(entry.getNextAttemptAt())
+        .isCloseTo(LocalDateTime.now().plusSeconds(60), within(5, ChronoUnit.SECONDS));
+  }
+
+  @Test
+  void givesUpEntriesSentMaxAttemptsTimes() {
+    var exhausted = sent(entry(new OrderPaid("order-1")), 5);
+    var retried = sent(entry(new OrderPaid("order-2")), 4);
+
+    service.markEventsAsFailed(List.of(exhausted, retried));
+
+    verify(repository).release(List.of(exhausted.getId()), "instance-1", EventState.RetriesExhausted);
+    verify(repository).releaseForRetry(eq(List.of(retried.getId())), eq("instance-1"), any());
+    assertThat(exhausted.getEventState()).isEqualTo(EventState.RetriesExhausted);
+    assertThat(exhausted.getNextAttemptAt()).isNull();
+  }
+
+  @Test
+  void savesEventsWithTheirTypeAndDispatchesOnce() {
+    var events = List.of(new OrderPaid("order-1"), new OrderPaid("order-2"));
+
+    service.saveEvents(events, TOPIC);
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<IntegrationEventLogEntry>> saved = ArgumentCaptor.forClass(List.class);
+    verify(repository).saveAll(saved.capture());
+    assertThat(saved.getValue()).hasSize(2).allSatisfy(entry -> {
+      assertThat(entry.getEventTypeName()).isEqualTo("OrderPaid");
+      assertThat(entry.getEventTypeVersion()).isEqualTo(1);
+      assertThat(entry.getEventState()).isEqualTo(EventState.NotPublished);
+      assertThat(entry.getTopic()).isEqualTo(TOPIC);
+    });
+    assertThat(codec.decode(saved.getValue().get(1).getContent(), OrderPaid.class).getOrderId()).isEqualTo("order-2");
+    verify(applicationEventPublisher).publishEvent(new IntegrationEventLogEntrySaved(events.get(1).getId(), TOPIC));
+  }
+
+  private IntegrationEventLogEntry entry(IntegrationEvent event) {
+    var entry = new IntegrationEventLogEntry(
+        event, registry.nameOf(event.getClass()), registry.versionOf(event.getClass()), codec.encode(event), TOPIC
+    );
+    ReflectionTestUtils.setField(entry, "id", ids.incrementAndGet());
+    return entry;
+  }
+
+  /**
+   * Puts an entry in the state it has after being claimed for the given attempt.
+   */
+  private IntegrationEventLogEntry sent(IntegrationEventLogEntry entry, int attempt) {
+    for (var i = 0; i < attempt; i++) {
+      entry.incrementTimesSent();
+    }
+    entry.setEventState(EventState.InProgress);
+    entry.lease("instance-1", LocalDateTime.now().plusMinutes(3));
+    return entry;
+  }
+
+  @NoArgsConstructor
+  @AllArgsConstructor
+  @Getter
+  static class OrderPaid extends IntegrationEvent {
+    private String orderId;
+  }
+}
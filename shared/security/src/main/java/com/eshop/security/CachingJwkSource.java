@@ -0,0 +1,107 @@
+package com.eshop.security;
+
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestOperations;
+
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWK source that keeps the JWK set in memory and refreshes it in the background. When the authorization server
+ * cannot be reached, the last known keys keep being used. Unknown key ids trigger an early refresh, at most
+ * once per <code>minRefreshInterval</code>, so that rotated keys are picked up without waiting for the next
+ * scheduled refresh.
+ */
+class CachingJwkSource implements JWKSource<SecurityContext> {
+  private static final Logger logger = LoggerFactory.getLogger(CachingJwkSource.class);
+
+  private final String jwkSetUri;
+  private final RestOperations restOperations;
+  private final Duration minRefreshInterval;
+
+  private volatile JWKSet jwkSet;
+  private volatile Instant lastRefreshAttempt = Instant.EPOCH;
+
+  CachingJwkSource(
+      String jwkSetUri,
+      RestOperations restOperations,
+      Duration refreshInterval,
+      Duration minRefreshInterval
+  ) {
+    this.jwkSetUri = jwkSetUri;
+    this.restOperations = restOperations;
+    this.minRefreshInterval = minRefreshInterval;
+
+    ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      var thread = new Thread(runnable, "jwk-set-refresh");
+      thread.setDaemon(true);
+      return thread;
+    });
+    executor.scheduleWithFixedDelay(
+        this::refreshQuietly,
+        refreshInterval.toMillis(),
+        refreshInterval.toMillis(),
+        TimeUnit.MILLISECONDS
+    );
+  }
+
+  @Override
+  public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) throws KeySourceException {
+    var current = jwkSet;
+    if (current == null) {
+      current = refresh(Instant.EPOCH);
+    }
+
+    var keys = jwkSelector.select(current);
+    if (keys.isEmpty()) {
+      keys = jwkSelector.select(refresh(Instant.now().minus(minRefreshInterval)));
+    }
+    return keys;
+  }
+
+  /**
+   * Fetches the JWK set unless a fetch has been attempted after <code>notRefreshedSince</code>.
+   */
+  private synchronized JWKSet refresh(Instant notRefreshedSince) throws KeySourceException {
+    if (jwkSet != null && lastRefreshAttempt.isAfter(notRefreshedSince)) {
+      return jwkSet;
+    }
+
+    lastRefreshAttempt = Instant.now();
+    try {
+      var response = restOperations.getForObject(jwkSetUri, String.class);
+      if (response == null) {
+        throw new ParseException("Empty JWK set response", 0);
+      }
+      jwkSet = JWKSet.parse(response);
+      return jwkSet;
+    } catch (RestClientException | ParseException e) {
+      if (jwkSet == null) {
+        throw new KeySourceException("Couldn't retrieve JWK set from %s".formatted(jwkSetUri), e);
+      }
+      logger.warn("Couldn't refresh JWK set from {}, keeping the cached keys", jwkSetUri, e);
+      return jwkSet;
+    }
+  }
+
+  private void refreshQuietly() {
+    try {
+      refresh(Instant.now());
+    } catch (KeySourceException e) {
+      logger.warn(e.getMessage(), e.getCause());
+    }
+  }
+}
@@ -9,19 +9,31 @@ import org.springframework.security.oauth2.server.resource.authentication.JwtGra
 import org.springframework.util.Assert;
 
 import java.util.Collection;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * JWT authentication converter that extracts granted authorities from both scopes and roles.
+ * <p>
+ * Tokens of the same user and client carry the same scopes and roles, so the authorities are computed once
+ * per distinct combination of claim values and shared by all tokens that have it.
  */
 public class EshopJwtAuthenticationConverter implements Converter<Jwt, JwtAuthenticationToken> {
   private static final String ROLES_CLAIM_NAME = "roles";
+  private static final int MAX_CACHED_AUTHORITY_SETS = 1024;
+
   private final String userNameAttribute;
+  private final JwtGrantedAuthoritiesConverter scopesConverter = new JwtGrantedAuthoritiesConverter();
+  private final JwtGrantedAuthoritiesConverter rolesConverter = new JwtGrantedAuthoritiesConverter();
+  private final Map<AuthorityClaims, Set<GrantedAuthority>> authoritiesByClaims = new ConcurrentHashMap<>();
 
   public EshopJwtAuthenticationConverter(@NonNull String userNameAttribute) {
     Assert.hasText(userNameAttribute, "userNameAttribute cannot be empty");
     this.userNameAttribute = userNameAttribute;
+    rolesConverter.setAuthoritiesClaimName(ROLES_CLAIM_NAME);
+    rolesConverter.setAuthorityPrefix("");
   }
 
   @Override
@@ -30,18 +42,32 @@ public class EshopJwtAuthenticationConverter implements Converter<Jwt, JwtAuthen
   }
 
   private Collection<GrantedAuthority> extractGrantedAuthorities(Jwt jwt) {
-    return Stream.concat(extractScopes(jwt).stream(), extractRoles(jwt).stream())
-        .collect(Collectors.toSet());
+    var claims = AuthorityClaims.of(jwt);
+    var cached = authoritiesByClaims.get(claims);
+    if (cached != null) {
+      return cached;
+    }
+
+    var authorities = computeGrantedAuthorities(jwt);
+    if (authoritiesByClaims.size() < MAX_CACHED_AUTHORITY_SETS) {
+      authoritiesByClaims.putIfAbsent(claims, authorities);
+    }
+    return authorities;
   }
 
-  private Collection<GrantedAuthority> extractScopes(Jwt jwt) {
-    return new JwtGrantedAuthoritiesConverter().convert(jwt);
+  private Set<GrantedAuthority> computeGrantedAuthorities(Jwt jwt) {
+    var authorities = new HashSet<>(scopesConverter.convert(jwt));
+    authorities.addAll(rolesConverter.convert(jwt));
+    return Set.copyOf(authorities);
   }
 
-  private Collection<GrantedAuthority> extractRoles(Jwt jwt) {
-    final var converter = new JwtGrantedAuthoritiesConverter();
-    converter.setAuthoritiesClaimName(ROLES_CLAIM_NAME);
-    converter.setAuthorityPrefix("");
-    return converter.convert(jwt);
+  /**
+   * Values of the claims authorities are extracted from, as found in the token.
+   */
+  private record AuthorityClaims(Object scope, Object scp, Object roles) {
+    static AuthorityClaims of(Jwt jwt) {
+      var claims = jwt.getClaims();
+      return new AuthorityClaims(claims.get("scope"), claims.get("scp"), claims.get(ROLES_CLAIM_NAME));
+    }
   }
 }
@@ -1,17 +1,63 @@
 package com.eshop.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.KeyType;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
 import org.springframework.lang.NonNull;
 import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
 import org.springframework.security.oauth2.core.OAuth2TokenValidator;
 import org.springframework.security.oauth2.jwt.*;
 import org.springframework.util.Assert;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestOperations;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * JWT decoder that ensures that both audience and issuer claims are valid.
+ * <p>
+ * The JWK set URI is discovered from the issuer once, on the first decoded token, and the keys are cached and
+ * refreshed in the background. The accepted signature algorithms are those of the issuer's signing keys.
+ * Tokens that passed validation are remembered, keyed by their hash, until they expire, so a token presented on
+ * every request of a session is verified only once.
  */
 public class EshopJwtDecoder implements JwtDecoder {
+  private static final String DISCOVERY_PATH = "/.well-known/openid-configuration";
+  private static final Duration JWK_SET_REFRESH_INTERVAL = Duration.ofMinutes(5);
+  private static final Duration JWK_SET_MIN_REFRESH_INTERVAL = Duration.ofSeconds(30);
+  private static final int MAX_VERIFIED_TOKENS = 10_000;
+
   private final String issuer;
   private final String allowedAudience;
+  private final RestOperations restOperations = new RestTemplate();
+  // When full, the least used tokens are dropped and verified again on their next use
+  private final Cache<String, Jwt> verifiedTokens = Caffeine.newBuilder()
+      .maximumSize(MAX_VERIFIED_TOKENS)
+      .expireAfter(new UntilTokenExpires())
+      .build();
+
+  private volatile JwtDecoder delegate;
 
   public EshopJwtDecoder(@NonNull String issuer, @NonNull String allowedAudience) {
     Assert.hasText(issuer, "Issuer cannot be empty");
@@ -22,9 +68,103 @@ public class EshopJwtDecoder implements JwtDecoder {
 
   @Override
   public Jwt decode(String token) throws JwtException {
-    NimbusJwtDecoder decoder = JwtDecoders.fromOidcIssuerLocation(issuer);
+    var tokenHash = hash(token);
+    var verified = verifiedTokens.getIfPresent(tokenHash);
+    if (verified != null && isNotExpired(verified)) {
+      return verified;
+    }
+
+    var jwt = delegate().decode(token);
+    if (jwt.getExpiresAt() != null) {
+      verifiedTokens.put(tokenHash, jwt);
+    }
+    return jwt;
+  }
+
+  private JwtDecoder delegate() {
+    var decoder = delegate;
+    if (decoder == null) {
+      synchronized (this) {
+        decoder = delegate;
+        if (decoder == null) {
+          decoder = createDecoder();
+          delegate = decoder;
+        }
+      }
+    }
+    return decoder;
+  }
+
+  private JwtDecoder createDecoder() {
+    var jwkSource = new CachingJwkSource(
+        discoverJwkSetUri(),
+        restOperations,
+        JWK_SET_REFRESH_INTERVAL,
+        JWK_SET_MIN_REFRESH_INTERVAL
+    );
+    var jwtProcessor = new DefaultJWTProcessor<SecurityContext>();
+    jwtProcessor.setJWSKeySelector(new JWSVerificationKeySelector<>(signatureAlgorithms(jwkSource), jwkSource));
+    // Claims are validated by the OAuth2TokenValidator
+    jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> {
+    });
+
+    var decoder = new NimbusJwtDecoder(jwtProcessor);
     decoder.setJwtValidator(delegatingValidator());
-    return decoder.decode(token);
+    return decoder;
+  }
+
+  private String discoverJwkSetUri() {
+    try {
+      var configuration = restOperations.exchange(
+          issuer + DISCOVERY_PATH,
+          HttpMethod.GET,
+          null,
+          new ParameterizedTypeReference<Map<String, Object>>() {
+          }
+      ).getBody();
+
+      if (configuration == null || !issuer.equals(configuration.get("issuer"))) {
+        throw new JwtException("The issuer %s does not match the discovered configuration".formatted(issuer));
+      }
+      if (!(configuration.get("jwks_uri") instanceof String jwkSetUri)) {
+        throw new JwtException("The configuration of issuer %s has no jwks_uri".formatted(issuer));
+      }
+      return jwkSetUri;
+    } catch (RestClientException e) {
+      throw new JwtException("Unable to discover the configuration of issuer %s".formatted(issuer), e);
+    }
+  }
+
+  /**
+   * Returns the algorithms of the issuer's signing keys: the algorithm of a key if it declares one, otherwise
+   * every algorithm of its key type.
+   */
+  private Set<JWSAlgorithm> signatureAlgorithms(JWKSource<SecurityContext> jwkSource) {
+    var signingKeys = new JWKMatcher.Builder()
+        .publicOnly(true)
+        .keyUses(KeyUse.SIGNATURE, null)
+        .keyTypes(KeyType.RSA, KeyType.EC)
+        .build();
+
+    var algorithms = new HashSet<JWSAlgorithm>();
+    try {
+      for (var key : jwkSource.get(new JWKSelector(signingKeys), null)) {
+        if (key.getAlgorithm() != null) {
+          algorithms.add(JWSAlgorithm.parse(key.getAlgorithm().getName()));
+        } else if (KeyType.RSA.equals(key.getKeyType())) {
+          algorithms.addAll(JWSAlgorithm.Family.RSA);
+        } else if (KeyType.EC.equals(key.getKeyType())) {
+          algorithms.addAll(JWSAlgorithm.Family.EC);
+        }
+      }
+    } catch (KeySourceException e) {
+      throw new JwtException("Unable to retrieve the keys of issuer %s".formatted(issuer), e);
+    }
+
+    if (algorithms.isEmpty()) {
+      throw new JwtException("Issuer %s has no signing keys".formatted(issuer));
+    }
+    return algorithms;
   }
 
   private OAuth2TokenValidator<Jwt> delegatingValidator() {
@@ -34,5 +174,37 @@ public class EshopJwtDecoder implements JwtDecoder {
     );
   }
 
+  private static boolean isNotExpired(Jwt jwt) {
+    return Instant.now().isBefore(jwt.getExpiresAt());
+  }
+
+  private static String hash(String token) {
+    try {
+      var digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+      return Base64.getEncoder().encodeToString(digest);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Expires a verified token together with the token itself.
+   */
+  private static class UntilTokenExpires implements Expiry<String, Jwt> {
+    @Override
+    public long expireAfterCreate(String tokenHash, Jwt jwt, long currentTime) {
+      return Math.max(0, Duration.between(Instant.now(), jwt.getExpiresAt()).toNanos());
+    }
+
+    @Override
+    public long expireAfterUpdate(String tokenHash, Jwt jwt, long currentTime, long currentDuration) {
+      return expireAfterCreate(tokenHash, jwt, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(String tokenHash, Jwt jwt, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+  }
 
 }
@@ -0,0 +1,63 @@
+package com.eshop.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EshopJwtAuthenticationConverterTest {
+  private final EshopJwtAuthenticationConverter converter = new EshopJwtAuthenticationConverter("preferred_username");
+
+  @Test
+  void grantsScopesAndRoles() {
+    var authentication = converter.convert(token("alice", "openid profile", List.of("user", "admin")));
+
+    assertThat(authentication.getName()).isEqualTo("alice");
+    assertThat(authentication.getAuthorities())
+        .extracting(GrantedAuthority::getAuthority)
+        .containsExactlyInAnyOrder("SCOPE_openid", "SCOPE_profile", "user", "admin");
+  }
+
+  @Test
+  void sharesAuthoritiesOfTokensWithTheSameClaims() {
+    var first = converter.convert(token("alice", "openid", List.of("user")));
+    var second = converter.convert(token("bob", "openid", List.of("user")));
+
+    // Tokens copy their authorities into a list of their own, the authorities themselves are shared
+    var firstAuthorities = List.copyOf(first.getAuthorities());
+    var secondAuthorities = List.copyOf(second.getAuthorities());
+    assertThat(secondAuthorities).hasSameSizeAs(firstAuthorities);
+    for (var i = 0; i < firstAuthorities.size(); i++) {
+      assertThat(secondAuthorities.get(i)).isSameAs(firstAuthorities.get(i));
+    }
+    assertThat(second.getName()).isEqualTo("bob");
+  }
+
+  @Test
+  void separatesAuthoritiesOfTokensWithOtherClaims() {
+    var user = converter.convert(token("alice", "openid", List.of("user")));
+    var admin = converter.convert(token("bob", "openid", List.of("user", "admin")));
+
+    assertThat(user.getAuthorities()).extracting(GrantedAuthority::getAuthority).doesNotContain("admin");
+    assertThat(admin.getAuthorities()).extracting(GrantedAuthority::getAuthority).contains("admin");
+  }
+
+  @Test
+  void grantsNothingWithoutScopesAndRoles() {
+    var jwt = Jwt.withTokenValue("token").header("alg", "RS256").claim("preferred_username", "alice").build();
+
+    assertThat(converter.convert(jwt).getAuthorities()).isEmpty();
+  }
+
+  private Jwt token(String userName, String scope, List<String> roles) {
+    return Jwt.withTokenValue("token-" + userName)
+        .header("alg", "RS256")
+        .claim("preferred_username", userName)
+        .claim("scope", scope)
+        .claim("roles", roles)
+        .build();
+  }
+}
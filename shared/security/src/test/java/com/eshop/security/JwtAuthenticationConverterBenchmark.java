@@ -0,0 +1,82 @@
+package com.eshop.security;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Compares converting tokens with cached authority sets with the former conversion, which created two authority
+ * converters and a new set of authorities for every token. Tokens of many users share a few combinations of
+ * scopes and roles. Run with <code>-prof gc</code> to compare allocations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAuthenticationConverterBenchmark {
+  private static final String USER_NAME_ATTRIBUTE = "preferred_username";
+  private static final int TOKEN_COUNT = 64;
+
+  private final EshopJwtAuthenticationConverter converter = new EshopJwtAuthenticationConverter(USER_NAME_ATTRIBUTE);
+  private List<Jwt> tokens;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    tokens = IntStream.range(0, TOKEN_COUNT)
+        .mapToObj(i -> Jwt.withTokenValue("token-" + i)
+            .header("alg", "RS256")
+            .claim(USER_NAME_ATTRIBUTE, "user-" + i)
+            .claim("scope", "openid profile email")
+            .claim("roles", i % 8 == 0 ? List.of("user", "admin") : List.of("user"))
+            .issuedAt(Instant.now())
+            .expiresAt(Instant.now().plusSeconds(300))
+            .build())
+        .collect(Collectors.toList());
+  }
+
+  @Benchmark
+  public JwtAuthenticationToken convert() {
+    return converter.convert(nextToken());
+  }
+
+  @Benchmark
+  public JwtAuthenticationToken convertPerToken() {
+    var jwt = nextToken();
+    return new JwtAuthenticationToken(jwt, authoritiesPerToken(jwt), jwt.getClaim(USER_NAME_ATTRIBUTE));
+  }
+
+  private Jwt nextToken() {
+    next = (next + 1) % TOKEN_COUNT;
+    return tokens.get(next);
+  }
+
+  private static Collection<GrantedAuthority> authoritiesPerToken(Jwt jwt) {
+    var rolesConverter = new JwtGrantedAuthoritiesConverter();
+    rolesConverter.setAuthoritiesClaimName("roles");
+    rolesConverter.setAuthorityPrefix("");
+
+    var scopes = new JwtGrantedAuthoritiesConverter().convert(jwt);
+    return Stream.concat(scopes.stream(), rolesConverter.convert(jwt).stream())
+        .collect(Collectors.toSet());
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(JwtAuthenticationConverterBenchmark.class.getSimpleName()).build()).run();
+  }
+}